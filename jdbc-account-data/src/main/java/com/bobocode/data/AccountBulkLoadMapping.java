@@ -0,0 +1,28 @@
+package com.bobocode.data;
+
+import com.bobocode.model.Account;
+import com.bobocode.util.bulk.BulkLoadMapping;
+import com.bobocode.util.bulk.BulkLoader;
+
+import java.util.List;
+
+/**
+ * {@link AccountBulkLoadMapping} maps {@link Account} to the {@code account} table for {@link BulkLoader}. Ids are
+ * generated by the database, so they are not loaded.
+ */
+public final class AccountBulkLoadMapping {
+    public static final BulkLoadMapping<Account> ACCOUNTS = BulkLoadMapping.of("account",
+            List.of("first_name", "last_name", "email", "gender", "birthday", "balance", "creation_time"),
+            (account, writer) -> {
+                writer.writeString(account.getFirstName());
+                writer.writeString(account.getLastName());
+                writer.writeString(account.getEmail());
+                writer.writeString(account.getGender() == null ? null : account.getGender().name());
+                writer.writeDate(account.getBirthday());
+                writer.writeDecimal(account.getBalance());
+                writer.writeTimestamp(account.getCreationTime());
+            });
+
+    private AccountBulkLoadMapping() {
+    }
+}
@@ -1,20 +1,32 @@
 package com.bobocode.util;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.io.InputStream;
 import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.stream.Collectors.joining;
 
 /**
- * {@link FileReader} provides an API that allow to read whole file into a {@link String} by file name.
+ * {@link FileReader} provides an API that allow to read whole file into a {@link String} by file name, or to stream
+ * SQL statements of a script file one by one. Files are loaded from the classpath as streams, so they can also be
+ * packed into a jar.
+ * <p>
+ * Small files are cached after the first read (up to 64 files, each of them at most 1M chars long), so repeated
+ * reads of the same file don't touch the file system. Bigger files are always streamed.
  */
 public class FileReader {
+    private static final int MAX_CACHED_RESOURCES = 64;
+    private static final int MAX_CACHED_RESOURCE_CHARS = 1 << 20;
+    private static final ResourceCache<String> fileContentCache = new ResourceCache<>(MAX_CACHED_RESOURCES);
+    private static final ResourceCache<List<String>> sqlStatementsCache = new ResourceCache<>(MAX_CACHED_RESOURCES);
 
     /**
      * Returns a {@link String} that contains whole text from the file specified by name.
@@ -23,27 +35,90 @@ public class FileReader {
      * @return string that holds whole file content
      */
     public static String readWholeFileFromResources(String fileName) {
-        Path filePath = createPathFromFileName(fileName);
-        try (Stream<String> fileLinesStream = openFileLinesStream(filePath)) {
-            return fileLinesStream.collect(joining("\n"));
+        String cachedContent = fileContentCache.get(fileName);
+        if (cachedContent != null) {
+            return cachedContent;
         }
+        String content;
+        try (BufferedReader reader = openResourceReader(fileName)) {
+            content = reader.lines().collect(joining("\n"));
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot read file!", e);
+        }
+        if (content.length() <= MAX_CACHED_RESOURCE_CHARS) {
+            fileContentCache.put(fileName, content);
+        }
+        return content;
     }
 
-    private static Stream<String> openFileLinesStream(Path filePath) {
-        try {
-            return Files.lines(filePath);
-        } catch (IOException e) {
-            throw new FileReaderException("Cannot create stream of file lines!", e);
+    /**
+     * Returns a lazy {@link Stream} of SQL statements from the script file specified by name. Statements are split
+     * by semicolons while the file is being read, so only the current statement is kept in memory. The stream holds
+     * an open file, so it should be closed after use.
+     *
+     * @param fileName a name of a SQL script file
+     * @return stream of SQL statements without trailing semicolons and comments
+     */
+    public static Stream<String> streamSqlStatements(String fileName) {
+        List<String> cachedStatements = sqlStatementsCache.get(fileName);
+        if (cachedStatements != null) {
+            return cachedStatements.stream();
         }
+        BufferedReader reader = openResourceReader(fileName);
+        SqlStatementSpliterator spliterator = new SqlStatementSpliterator(reader);
+        StatementCollector collector = new StatementCollector();
+        return StreamSupport.stream(spliterator, false)
+                .peek(collector::add)
+                .onClose(() -> {
+                    closeReader(reader);
+                    if (spliterator.isExhausted() && !collector.overflowed) {
+                        sqlStatementsCache.put(fileName, List.copyOf(collector.statements));
+                    }
+                });
     }
 
-    private static Path createPathFromFileName(String fileName) {
+    private static BufferedReader openResourceReader(String fileName) {
         Objects.requireNonNull(fileName);
         URL fileUrl = FileReader.class.getClassLoader().getResource(fileName);
+        if (fileUrl == null) {
+            throw new FileReaderException(String.format("Cannot find file %s on the classpath", fileName));
+        }
         try {
-            return Paths.get(fileUrl.toURI());
-        } catch (URISyntaxException e) {
-            throw new FileReaderException("Invalid file URL",e);
+            InputStream inputStream = fileUrl.openStream();
+            return new BufferedReader(Channels.newReader(Channels.newChannel(inputStream), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot open file reader!", e);
+        }
+    }
+
+    private static void closeReader(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot close file reader!", e);
+        }
+    }
+
+    /**
+     * Collects statements that pass through a stream until they exceed {@link #MAX_CACHED_RESOURCE_CHARS}, so a big
+     * script is never kept in memory as a whole.
+     */
+    private static class StatementCollector {
+        private final List<String> statements = new ArrayList<>();
+        private int collectedChars;
+        private boolean overflowed;
+
+        private void add(String statement) {
+            if (overflowed) {
+                return;
+            }
+            collectedChars += statement.length();
+            if (collectedChars > MAX_CACHED_RESOURCE_CHARS) {
+                overflowed = true;
+                statements.clear();
+            } else {
+                statements.add(statement);
+            }
         }
     }
 }
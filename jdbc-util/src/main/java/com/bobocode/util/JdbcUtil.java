@@ -1,9 +1,18 @@
 package com.bobocode.util;
 
+import com.bobocode.util.metrics.InstrumentedDataSource;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import com.bobocode.util.statement.StatementCachingDataSource;
 import org.h2.jdbcx.JdbcDataSource;
 import org.postgresql.ds.PGSimpleDataSource;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Map;
 
 public class JdbcUtil {
@@ -46,6 +55,96 @@ public class JdbcUtil {
         return String.format("jdbc:postgresql://localhost:5432/%s", databaseName);
     }
 
+    /**
+     * Wraps a given {@link DataSource} into a bounded connection pool with default settings
+     *
+     * @param dataSource a data source that opens physical connections
+     * @return pooled data source
+     */
+    public static PooledDataSource createPooledDataSource(DataSource dataSource) {
+        return createPooledDataSource(dataSource, PoolConfig.defaultConfig());
+    }
+
+    /**
+     * Wraps a given {@link DataSource} into a bounded connection pool configured by {@link PoolConfig}
+     *
+     * @param dataSource a data source that opens physical connections
+     * @param config     pool settings
+     * @return pooled data source
+     */
+    public static PooledDataSource createPooledDataSource(DataSource dataSource, PoolConfig config) {
+        return new PooledDataSource(dataSource, config);
+    }
+
+    /**
+     * Wraps every connection of a given {@link DataSource} with an LRU cache of prepared statements
+     *
+     * @param dataSource a data source to decorate
+     * @param cacheSize  max number of statements cached per connection
+     * @return statement caching data source
+     */
+    public static DataSource createStatementCachingDataSource(DataSource dataSource, int cacheSize) {
+        return new StatementCachingDataSource(dataSource, cacheSize);
+    }
+
+    /**
+     * Wraps a given {@link DataSource} into a decorator that collects connection and statement latency histograms.
+     * Use {@link InstrumentedDataSource#getMetrics()} to read them.
+     *
+     * @param dataSource a data source to decorate
+     * @return instrumented data source
+     */
+    public static InstrumentedDataSource createInstrumentedDataSource(DataSource dataSource) {
+        return new InstrumentedDataSource(dataSource);
+    }
+
+    /**
+     * Wraps a given {@link DataSource} into a decorator that collects latency histograms and logs statements
+     * that run longer than a given threshold
+     *
+     * @param dataSource         a data source to decorate
+     * @param slowQueryThreshold min execution time of a statement that is logged as slow
+     * @return instrumented data source
+     */
+    public static InstrumentedDataSource createInstrumentedDataSource(DataSource dataSource, Duration slowQueryThreshold) {
+        return new InstrumentedDataSource(dataSource, slowQueryThreshold);
+    }
+
+    /**
+     * Prepares a forward-only read-only query that fetches rows from the database in chunks of a given size instead of
+     * loading the whole result into memory. PostgreSQL driver uses a cursor (and respects fetch size) only inside a
+     * transaction, so auto-commit is turned off on a given connection. Call {@link #endCursorQuery(Connection)} once
+     * the result set is read.
+     *
+     * @param connection a connection to run the query on
+     * @param sql        query SQL
+     * @param fetchSize  number of rows fetched per round trip
+     * @return prepared statement
+     */
+    public static PreparedStatement openCursorQuery(Connection connection, String sql, int fetchSize) throws SQLException {
+        connection.setAutoCommit(false);
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            statement.setFetchSize(fetchSize);
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
+        }
+        return statement;
+    }
+
+    /**
+     * Ends the transaction started by {@link #openCursorQuery(Connection, String, int)} and turns auto-commit back on
+     *
+     * @param connection a connection the query was run on
+     */
+    public static void endCursorQuery(Connection connection) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+    }
+
     public static Map<String, String> getInMemoryDbPropertiesMap() {
         return Map.of(
                 "url", String.format("jdbc:h2:mem:%s", DEFAULT_DATABASE_NAME),
@@ -0,0 +1,43 @@
+package com.bobocode.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * {@link ProxyUtil} provides helper methods used to build JDBC decorators on top of JDK dynamic proxies.
+ */
+public class ProxyUtil {
+
+    /**
+     * Creates a dynamic proxy that implements a given interface and dispatches all calls to the handler
+     *
+     * @param type    interface that proxy should implement
+     * @param handler invocation handler
+     * @param <T>     proxy type
+     * @return new proxy instance
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T createProxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ProxyUtil.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Invokes a method on the target object and rethrows the original exception instead of
+     * {@link InvocationTargetException}, so the proxy stays transparent for the caller
+     *
+     * @param target target object
+     * @param method method to invoke
+     * @param args   method arguments
+     * @return method result
+     * @throws Throwable an exception thrown by the target method
+     */
+    public static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bobocode.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link ResourceCache} is a small thread-safe LRU cache that keeps the content of classpath resources by their names.
+ *
+ * @param <V> type of cached content
+ */
+class ResourceCache<V> {
+    private final Map<String, V> entries;
+
+    ResourceCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized V get(String resourceName) {
+        return entries.get(resourceName);
+    }
+
+    synchronized void put(String resourceName, V content) {
+        entries.put(resourceName, content);
+    }
+}
@@ -0,0 +1,101 @@
+package com.bobocode.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link SqlDialect} builds SQL statements whose syntax differs between supported databases. A dialect is detected
+ * from {@link java.sql.DatabaseMetaData#getDatabaseProductName()}.
+ */
+public enum SqlDialect {
+    H2 {
+        @Override
+        public String createUpsertSql(String table, String keyColumn, List<String> columns, List<String> values) {
+            return String.format("MERGE INTO %s(%s) KEY(%s) VALUES (%s)",
+                    table, String.join(", ", columns), keyColumn, String.join(", ", values));
+        }
+    },
+    /**
+     * {@code INSERT ... ON CONFLICT} requires PostgreSQL 9.5 or newer
+     */
+    POSTGRESQL {
+        @Override
+        public String createUpsertSql(String table, String keyColumn, List<String> columns, List<String> values) {
+            String updates = columns.stream()
+                    .filter(column -> !column.equals(keyColumn))
+                    .map(column -> String.format("%s = EXCLUDED.%s", column, column))
+                    .collect(joining(", "));
+            return String.format("INSERT INTO %s(%s) VALUES (%s) ON CONFLICT (%s) DO UPDATE SET %s",
+                    table, String.join(", ", columns), String.join(", ", values), keyColumn, updates);
+        }
+    },
+    OTHER {
+        @Override
+        public boolean supportsUpsert() {
+            return false;
+        }
+
+        @Override
+        public String createUpsertSql(String table, String keyColumn, List<String> columns, List<String> values) {
+            throw new UnsupportedOperationException("Upsert is not supported for this database");
+        }
+    };
+
+    public static SqlDialect of(Connection connection) throws SQLException {
+        return fromDatabaseProductName(connection.getMetaData().getDatabaseProductName());
+    }
+
+    public static SqlDialect fromDatabaseProductName(String databaseProductName) {
+        String productName = databaseProductName.toLowerCase(Locale.ROOT);
+        if (productName.equals("h2")) {
+            return H2;
+        } else if (productName.contains("postgresql")) {
+            return POSTGRESQL;
+        } else {
+            return OTHER;
+        }
+    }
+
+    /**
+     * @return whether {@link #createUpsertSql(String, String, List)} is available. Without it an upsert can be
+     * emulated with an update followed by an insert of missing rows in one transaction.
+     */
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    /**
+     * Creates a statement that inserts a row, or updates all other columns when a row with the same key exists.
+     * Parameters are bound in the order of {@code columns}.
+     *
+     * @param table     table name
+     * @param keyColumn a primary key or unique column that identifies a row
+     * @param columns   all columns set by the statement, including {@code keyColumn}
+     * @return upsert SQL
+     */
+    public String createUpsertSql(String table, String keyColumn, List<String> columns) {
+        return createUpsertSql(table, keyColumn, columns, placeholders(columns));
+    }
+
+    /**
+     * Creates an upsert statement with given SQL expressions as column values, e.g. {@code now()} for a column that
+     * is set by the database. Expressions are not escaped, so they should never come from user input.
+     *
+     * @param table     table name
+     * @param keyColumn a primary key or unique column that identifies a row
+     * @param columns   all columns set by the statement, including {@code keyColumn}
+     * @param values    a value expression for every column, {@code ?} for bound parameters
+     * @return upsert SQL
+     * @throws UnsupportedOperationException if the dialect does not {@link #supportsUpsert() support upsert}
+     */
+    public abstract String createUpsertSql(String table, String keyColumn, List<String> columns, List<String> values);
+
+    private static List<String> placeholders(List<String> columns) {
+        return columns.stream().map(column -> "?").collect(toList());
+    }
+}
@@ -0,0 +1,180 @@
+package com.bobocode.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * {@link SqlStatementSpliterator} lazily splits a SQL script into separate statements. It reads the script char by
+ * char, so only the current statement is kept in memory. Semicolons inside string literals ({@code '...'}), quoted
+ * identifiers ({@code "..."}), dollar-quoted blocks ({@code $$...$$}, {@code $tag$...$tag$}) and comments do not
+ * end a statement. Comments are not included into the returned statements.
+ */
+class SqlStatementSpliterator extends Spliterators.AbstractSpliterator<String> {
+    private static final int EOF = -1;
+    private final Reader reader;
+    private final StringBuilder statement = new StringBuilder();
+    private int lookahead = EOF;
+    private boolean hasLookahead;
+    private int previousChar = EOF;
+    private boolean exhausted;
+
+    SqlStatementSpliterator(Reader reader) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        try {
+            String nextStatement = readStatement();
+            if (nextStatement == null) {
+                exhausted = true;
+                return false;
+            }
+            action.accept(nextStatement);
+            return true;
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot read SQL statement", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if the whole script was read
+     */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    private String readStatement() throws IOException {
+        int c;
+        while ((c = read()) != EOF) {
+            if (c == ';') {
+                String completeStatement = takeStatement();
+                if (!completeStatement.isEmpty()) {
+                    return completeStatement;
+                }
+            } else if (c == '\'' || c == '"') {
+                readQuoted(c);
+            } else if (c == '-' && peek() == '-') {
+                skipLineComment();
+            } else if (c == '/' && peek() == '*') {
+                skipBlockComment();
+            } else if (c == '$' && !isIdentifierChar(previousChar)) {
+                readDollarQuotedOrAppend();
+            } else {
+                append(c);
+            }
+        }
+        String lastStatement = takeStatement();
+        return lastStatement.isEmpty() ? null : lastStatement;
+    }
+
+    private void readQuoted(int quote) throws IOException {
+        append(quote);
+        int c;
+        while ((c = read()) != EOF) {
+            append(c);
+            if (c == quote) {
+                if (peek() != quote) {
+                    return;
+                }
+                append(read()); // escaped quote, e.g. 'it''s'
+            }
+        }
+    }
+
+    private void skipLineComment() throws IOException {
+        int c;
+        while ((c = read()) != EOF && c != '\n') {
+            // skip comment content
+        }
+        append('\n');
+    }
+
+    private void skipBlockComment() throws IOException {
+        read(); // '*'
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) != EOF) {
+            if (c == '*' && peek() == '/') {
+                read();
+                depth--;
+            } else if (c == '/' && peek() == '*') {
+                read();
+                depth++;
+            }
+        }
+        append(' ');
+    }
+
+    private void readDollarQuotedOrAppend() throws IOException {
+        StringBuilder tag = new StringBuilder("$");
+        int c;
+        while ((c = peek()) != EOF && isTagChar(c, tag.length() == 1)) {
+            tag.append((char) read());
+        }
+        if (peek() != '$') {
+            statement.append(tag); // a positional parameter like $1 or a plain dollar sign
+            previousChar = tag.charAt(tag.length() - 1);
+            return;
+        }
+        tag.append((char) read());
+        statement.append(tag);
+        readDollarQuotedBody(tag.toString());
+    }
+
+    private void readDollarQuotedBody(String tag) throws IOException {
+        int matched = 0;
+        int c;
+        while ((c = read()) != EOF) {
+            append(c);
+            if (c == tag.charAt(matched)) {
+                matched++;
+                if (matched == tag.length()) {
+                    return;
+                }
+            } else {
+                matched = c == tag.charAt(0) ? 1 : 0;
+            }
+        }
+    }
+
+    private static boolean isTagChar(int c, boolean first) {
+        return Character.isLetter(c) || c == '_' || (!first && Character.isDigit(c));
+    }
+
+    private static boolean isIdentifierChar(int c) {
+        return c != EOF && (Character.isLetterOrDigit(c) || c == '_');
+    }
+
+    private String takeStatement() {
+        String result = statement.toString().trim();
+        statement.setLength(0);
+        previousChar = EOF;
+        return result;
+    }
+
+    private void append(int c) {
+        statement.append((char) c);
+        previousChar = c;
+    }
+
+    private int read() throws IOException {
+        if (hasLookahead) {
+            hasLookahead = false;
+            return lookahead;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (!hasLookahead) {
+            lookahead = reader.read();
+            hasLookahead = true;
+        }
+        return lookahead;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bobocode.util.bulk;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BulkLoadMapping} describes how objects are loaded into a table: the table name, a list of columns, and
+ * a {@link RowEncoder} that writes column values of an object in the same order.
+ * <p>
+ * Table and column names are put into SQL as is, so they are validated to be plain identifiers: letters, digits and
+ * underscores, not starting with a digit. A table name can be qualified with a schema name.
+ *
+ * @param <T> type of loaded objects
+ */
+public final class BulkLoadMapping<T> {
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern TABLE_NAME = Pattern.compile("([A-Za-z_][A-Za-z0-9_]*\\.)?[A-Za-z_][A-Za-z0-9_]*");
+    private final String table;
+    private final List<String> columns;
+    private final RowEncoder<T> rowEncoder;
+
+    private BulkLoadMapping(String table, List<String> columns, RowEncoder<T> rowEncoder) {
+        this.table = table;
+        this.columns = columns;
+        this.rowEncoder = rowEncoder;
+    }
+
+    public static <T> BulkLoadMapping<T> of(String table, List<String> columns, RowEncoder<T> rowEncoder) {
+        Objects.requireNonNull(table);
+        Objects.requireNonNull(rowEncoder);
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column should be provided");
+        }
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid table name: %s", table));
+        }
+        for (String column : columns) {
+            if (column == null || !COLUMN_NAME.matcher(column).matches()) {
+                throw new IllegalArgumentException(String.format("Invalid column name: %s", column));
+            }
+        }
+        return new BulkLoadMapping<>(table, List.copyOf(columns), rowEncoder);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public RowEncoder<T> getRowEncoder() {
+        return rowEncoder;
+    }
+}
@@ -0,0 +1,146 @@
+package com.bobocode.util.bulk;
+
+import com.bobocode.util.SqlDialect;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * {@link BulkLoader} inserts a large number of rows into a table. On PostgreSQL it streams rows with
+ * {@code COPY ... FROM STDIN} using the driver's {@link org.postgresql.copy.CopyManager}: rows are encoded as CSV into
+ * a fixed size buffer that is sent to the server each time it fills up, so neither all rows nor all encoded data is
+ * kept in memory. Other databases (e.g. H2 in tests) fall back to batched {@code INSERT} statements.
+ * <p>
+ * Either way, the load is atomic: if any row fails, no rows are inserted.
+ * <p>
+ * Like {@link com.bobocode.util.JdbcUtil#openCursorQuery} and {@link com.bobocode.util.mapping.RowMapper}, the
+ * loader is a low-level JDBC helper, so it throws {@link SQLException} as is, and callers such as DAOs wrap it into
+ * their own exceptions. Runtime exceptions thrown by the row source or the {@link RowEncoder} are rethrown unchanged,
+ * after the load is rolled back.
+ */
+public class BulkLoader {
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final int bufferSize;
+
+    public BulkLoader(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param dataSource a data source to load rows into
+     * @param batchSize  number of rows in a JDBC batch used when {@code COPY} is not supported
+     * @param bufferSize number of chars encoded before they are sent to the server with {@code COPY}
+     */
+    public BulkLoader(DataSource dataSource, int batchSize, int bufferSize) {
+        if (batchSize <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("Batch size and buffer size should be positive");
+        }
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Loads all rows of a stream. The stream is consumed lazily, so rows can be generated or read on the fly.
+     *
+     * @return number of loaded rows
+     * @throws SQLException if a connection cannot be opened, or the database rejects a row; no rows are loaded then
+     */
+    public <T> long load(BulkLoadMapping<T> mapping, Stream<T> rows) throws SQLException {
+        return load(mapping, rows.iterator());
+    }
+
+    /**
+     * @return number of loaded rows
+     * @throws SQLException if a connection cannot be opened, or the database rejects a row; no rows are loaded then
+     */
+    public <T> long load(BulkLoadMapping<T> mapping, Iterable<T> rows) throws SQLException {
+        return load(mapping, rows.iterator());
+    }
+
+    /**
+     * @return number of loaded rows
+     * @throws SQLException if a connection cannot be opened, or the database rejects a row; no rows are loaded then
+     */
+    public <T> long load(BulkLoadMapping<T> mapping, Iterator<T> rows) throws SQLException {
+        Objects.requireNonNull(mapping);
+        Objects.requireNonNull(rows);
+        try (Connection connection = dataSource.getConnection()) {
+            if (SqlDialect.of(connection) == SqlDialect.POSTGRESQL) {
+                return copy(mapping, rows, connection);
+            } else {
+                return insertInBatches(mapping, rows, connection);
+            }
+        }
+    }
+
+    private <T> long copy(BulkLoadMapping<T> mapping, Iterator<T> rows, Connection connection) throws SQLException {
+        String copySql = String.format("COPY %s (%s) FROM STDIN WITH (FORMAT csv)",
+                mapping.getTable(), String.join(", ", mapping.getColumns()));
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+        try {
+            CsvCopyWriter writer = new CsvCopyWriter(copyIn, bufferSize);
+            RowEncoder<T> rowEncoder = mapping.getRowEncoder();
+            while (rows.hasNext()) {
+                rowEncoder.encode(rows.next(), writer);
+                writer.endRow();
+            }
+            writer.flush();
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private <T> long insertInBatches(BulkLoadMapping<T> mapping, Iterator<T> rows, Connection connection)
+            throws SQLException {
+        String insertSql = String.format("INSERT INTO %s(%s) VALUES (%s)", mapping.getTable(),
+                String.join(", ", mapping.getColumns()),
+                String.join(", ", Collections.nCopies(mapping.getColumns().size(), "?")));
+        connection.setAutoCommit(false);
+        try (PreparedStatement insertStatement = connection.prepareStatement(insertSql)) {
+            long rowCount = insertRows(mapping.getRowEncoder(), rows, insertStatement);
+            connection.commit();
+            return rowCount;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private <T> long insertRows(RowEncoder<T> rowEncoder, Iterator<T> rows, PreparedStatement insertStatement)
+            throws SQLException {
+        StatementParameterWriter writer = new StatementParameterWriter(insertStatement);
+        long rowCount = 0;
+        int batchRowCount = 0;
+        while (rows.hasNext()) {
+            rowEncoder.encode(rows.next(), writer);
+            writer.endRow();
+            rowCount++;
+            if (++batchRowCount == batchSize) {
+                insertStatement.executeBatch();
+                batchRowCount = 0;
+            }
+        }
+        if (batchRowCount > 0) {
+            insertStatement.executeBatch();
+        }
+        return rowCount;
+    }
+}
@@ -0,0 +1,118 @@
+package com.bobocode.util.bulk;
+
+import org.postgresql.copy.CopyIn;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * {@link CsvCopyWriter} encodes rows in PostgreSQL {@code COPY} CSV format, and sends them to the database whenever
+ * the buffer is full, so memory usage does not depend on the number of rows. Strings are always quoted, so an empty
+ * string is not confused with {@code NULL}, which is written as an unquoted empty value.
+ */
+class CsvCopyWriter implements RowValueWriter {
+    private final CopyIn copyIn;
+    private final int bufferSize;
+    private final StringBuilder rowBuffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer byteBuffer;
+    private boolean firstValue = true;
+
+    CsvCopyWriter(CopyIn copyIn, int bufferSize) {
+        this.copyIn = copyIn;
+        this.bufferSize = bufferSize;
+        this.rowBuffer = new StringBuilder(bufferSize + 1024);
+        this.byteBuffer = ByteBuffer.allocate(bufferSize * 4);
+    }
+
+    @Override
+    public void writeString(String value) {
+        startValue();
+        if (value != null) {
+            rowBuffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    rowBuffer.append('"');
+                }
+                rowBuffer.append(c);
+            }
+            rowBuffer.append('"');
+        }
+    }
+
+    @Override
+    public void writeLong(Long value) {
+        startValue();
+        if (value != null) {
+            rowBuffer.append(value.longValue());
+        }
+    }
+
+    @Override
+    public void writeDecimal(BigDecimal value) {
+        startValue();
+        if (value != null) {
+            rowBuffer.append(value.toPlainString());
+        }
+    }
+
+    @Override
+    public void writeDate(LocalDate value) {
+        startValue();
+        if (value != null) {
+            rowBuffer.append(value);
+        }
+    }
+
+    @Override
+    public void writeTimestamp(LocalDateTime value) {
+        startValue();
+        if (value != null) {
+            rowBuffer.append(value);
+        }
+    }
+
+    private void startValue() {
+        if (firstValue) {
+            firstValue = false;
+        } else {
+            rowBuffer.append(',');
+        }
+    }
+
+    /**
+     * Ends the current row, and sends buffered rows to the database if the buffer is full
+     */
+    void endRow() throws SQLException {
+        rowBuffer.append('\n');
+        firstValue = true;
+        if (rowBuffer.length() >= bufferSize) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException {
+        CharBuffer chars = CharBuffer.wrap(rowBuffer);
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, byteBuffer, true);
+            writeBytes();
+        } while (result.isOverflow());
+        encoder.reset();
+        rowBuffer.setLength(0);
+    }
+
+    private void writeBytes() throws SQLException {
+        byteBuffer.flip();
+        copyIn.writeToCopy(byteBuffer.array(), 0, byteBuffer.limit());
+        byteBuffer.clear();
+    }
+}
@@ -0,0 +1,13 @@
+package com.bobocode.util.bulk;
+
+import java.sql.SQLException;
+
+/**
+ * {@link RowEncoder} writes fields of an object as column values of one row
+ *
+ * @param <T> type of loaded objects
+ */
+@FunctionalInterface
+public interface RowEncoder<T> {
+    void encode(T row, RowValueWriter writer) throws SQLException;
+}
@@ -0,0 +1,22 @@
+package com.bobocode.util.bulk;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * {@link RowValueWriter} receives column values of one row in the order of {@link BulkLoadMapping#getColumns()}.
+ * Every method accepts {@code null} and writes SQL {@code NULL}.
+ */
+public interface RowValueWriter {
+    void writeString(String value) throws SQLException;
+
+    void writeLong(Long value) throws SQLException;
+
+    void writeDecimal(BigDecimal value) throws SQLException;
+
+    void writeDate(LocalDate value) throws SQLException;
+
+    void writeTimestamp(LocalDateTime value) throws SQLException;
+}
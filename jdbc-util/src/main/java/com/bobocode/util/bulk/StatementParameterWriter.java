@@ -0,0 +1,56 @@
+package com.bobocode.util.bulk;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * {@link StatementParameterWriter} binds column values of a row to parameters of an {@code INSERT} statement
+ */
+class StatementParameterWriter implements RowValueWriter {
+    private final PreparedStatement statement;
+    private int parameterIndex = 1;
+
+    StatementParameterWriter(PreparedStatement statement) {
+        this.statement = statement;
+    }
+
+    @Override
+    public void writeString(String value) throws SQLException {
+        statement.setString(parameterIndex++, value);
+    }
+
+    @Override
+    public void writeLong(Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(parameterIndex++, Types.BIGINT);
+        } else {
+            statement.setLong(parameterIndex++, value);
+        }
+    }
+
+    @Override
+    public void writeDecimal(BigDecimal value) throws SQLException {
+        statement.setBigDecimal(parameterIndex++, value);
+    }
+
+    @Override
+    public void writeDate(LocalDate value) throws SQLException {
+        statement.setDate(parameterIndex++, value == null ? null : Date.valueOf(value));
+    }
+
+    @Override
+    public void writeTimestamp(LocalDateTime value) throws SQLException {
+        statement.setTimestamp(parameterIndex++, value == null ? null : Timestamp.valueOf(value));
+    }
+
+    void endRow() throws SQLException {
+        statement.addBatch();
+        parameterIndex = 1;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bobocode.util.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link BoundRowMapper} is a {@link RowMapper} with column indices resolved for a particular {@link ResultSet}
+ *
+ * @param <T> type of the mapped object
+ */
+public final class BoundRowMapper<T> {
+    private final RowReader<T> rowReader;
+    private final ResultSetRow row;
+
+    BoundRowMapper(RowReader<T> rowReader, ResultSetRow row) {
+        this.rowReader = rowReader;
+        this.row = row;
+    }
+
+    /**
+     * Maps the current row. It doesn't move the result set cursor.
+     */
+    public T mapRow() throws SQLException {
+        return rowReader.read(row);
+    }
+}
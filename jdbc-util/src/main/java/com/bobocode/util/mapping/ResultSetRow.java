@@ -0,0 +1,114 @@
+package com.bobocode.util.mapping;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * {@link ResultSetRow} gives typed access to the current row of a {@link ResultSet} by column position. Positions are
+ * translated to result set indices that are resolved once when the row is created.
+ * <p>
+ * {@code java.time} values are read with {@link ResultSet#getObject(int, Class)}, which lets the driver create them
+ * without intermediate {@link Date} and {@link Timestamp} objects. Drivers that don't support it (e.g. PostgreSQL JDBC4
+ * driver 9.4) are detected on the first call, and the row falls back to {@code java.sql} types for the rest of the
+ * result set.
+ */
+public final class ResultSetRow {
+    private final ResultSet resultSet;
+    private final int[] columnIndices;
+    private boolean javaTimeSupported = true;
+
+    ResultSetRow(ResultSet resultSet, String[] columnLabels) throws SQLException {
+        this.resultSet = resultSet;
+        this.columnIndices = resolveColumnIndices(resultSet.getMetaData(), columnLabels);
+    }
+
+    private static int[] resolveColumnIndices(ResultSetMetaData metaData, String[] columnLabels) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        int[] indices = new int[columnLabels.length];
+        for (int i = 0; i < columnLabels.length; i++) {
+            indices[i] = findColumn(metaData, columnCount, columnLabels[i]);
+        }
+        return indices;
+    }
+
+    private static int findColumn(ResultSetMetaData metaData, int columnCount, String columnLabel) throws SQLException {
+        for (int index = 1; index <= columnCount; index++) {
+            if (metaData.getColumnLabel(index).equalsIgnoreCase(columnLabel)) {
+                return index;
+            }
+        }
+        throw new SQLException(String.format("Column %s is not found in the result set", columnLabel));
+    }
+
+    public ResultSet getResultSet() {
+        return resultSet;
+    }
+
+    /**
+     * @return {@code 0} if the value is SQL {@code NULL}, use {@link #getNullableLong(int)} to tell them apart
+     */
+    public long getLong(int column) throws SQLException {
+        return resultSet.getLong(columnIndices[column]);
+    }
+
+    public Long getNullableLong(int column) throws SQLException {
+        long value = resultSet.getLong(columnIndices[column]);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    public int getInt(int column) throws SQLException {
+        return resultSet.getInt(columnIndices[column]);
+    }
+
+    public String getString(int column) throws SQLException {
+        return resultSet.getString(columnIndices[column]);
+    }
+
+    public BigDecimal getBigDecimal(int column) throws SQLException {
+        return resultSet.getBigDecimal(columnIndices[column]);
+    }
+
+    public LocalDate getLocalDate(int column) throws SQLException {
+        int index = columnIndices[column];
+        if (javaTimeSupported) {
+            LocalDate value = getJavaTimeObject(index, LocalDate.class);
+            if (javaTimeSupported) {
+                return value;
+            }
+        }
+        Date date = resultSet.getDate(index);
+        return date == null ? null : date.toLocalDate();
+    }
+
+    public LocalDateTime getLocalDateTime(int column) throws SQLException {
+        int index = columnIndices[column];
+        if (javaTimeSupported) {
+            LocalDateTime value = getJavaTimeObject(index, LocalDateTime.class);
+            if (javaTimeSupported) {
+                return value;
+            }
+        }
+        Timestamp timestamp = resultSet.getTimestamp(index);
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    /**
+     * Older drivers either don't implement {@link ResultSet#getObject(int, Class)}, or throw {@link SQLException} for
+     * {@code java.time} classes. In both cases the value is read again using {@code java.sql} types, so a real error
+     * is still reported by that call.
+     */
+    private <T> T getJavaTimeObject(int index, Class<T> type) {
+        try {
+            return resultSet.getObject(index, type);
+        } catch (SQLException | AbstractMethodError e) {
+            javaTimeSupported = false;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.bobocode.util.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link RowMapper} maps {@link ResultSet} rows to objects by column index instead of column label. A mapper is
+ * created once for a set of column labels, and is {@link #bind(ResultSet) bound} to each result set. Binding resolves
+ * column indices from the result set metadata, so looking up a column by its label happens once per result set
+ * instead of once per row.
+ * <p>
+ * {@link RowMapper} is immutable and can be shared between threads, while {@link BoundRowMapper} belongs to a single
+ * result set.
+ *
+ * @param <T> type of the mapped object
+ */
+public final class RowMapper<T> {
+    private final String[] columnLabels;
+    private final List<String> columnLabelList;
+    private final RowReader<T> rowReader;
+
+    private RowMapper(RowReader<T> rowReader, String[] columnLabels) {
+        this.rowReader = rowReader;
+        this.columnLabels = columnLabels;
+        this.columnLabelList = List.of(columnLabels);
+    }
+
+    /**
+     * @param rowReader    creates an object from a row, referencing columns by position in {@code columnLabels}
+     * @param columnLabels labels of the columns read by {@code rowReader}
+     */
+    public static <T> RowMapper<T> of(RowReader<T> rowReader, String... columnLabels) {
+        Objects.requireNonNull(rowReader);
+        if (columnLabels.length == 0) {
+            throw new IllegalArgumentException("At least one column label should be provided");
+        }
+        return new RowMapper<>(rowReader, columnLabels.clone());
+    }
+
+    /**
+     * @return unmodifiable list of column labels, the same instance on every call, so it is cheap to use as a cache key
+     */
+    public List<String> getColumnLabels() {
+        return columnLabelList;
+    }
+
+    /**
+     * Resolves column indices of the given result set
+     *
+     * @throws SQLException if the result set doesn't contain one of the columns
+     */
+    public BoundRowMapper<T> bind(ResultSet resultSet) throws SQLException {
+        return new BoundRowMapper<>(rowReader, new ResultSetRow(resultSet, columnLabels));
+    }
+
+    /**
+     * Reads all remaining rows of the result set
+     */
+    public List<T> mapAll(ResultSet resultSet) throws SQLException {
+        BoundRowMapper<T> boundRowMapper = bind(resultSet);
+        List<T> result = new ArrayList<>();
+        while (resultSet.next()) {
+            result.add(boundRowMapper.mapRow());
+        }
+        return result;
+    }
+}
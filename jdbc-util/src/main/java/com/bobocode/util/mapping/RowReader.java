@@ -0,0 +1,14 @@
+package com.bobocode.util.mapping;
+
+import java.sql.SQLException;
+
+/**
+ * {@link RowReader} creates an object from the current row of a {@link ResultSetRow}. Columns are referenced by their
+ * position in the labels passed to {@link RowMapper#of(RowReader, String...)}, starting from zero.
+ *
+ * @param <T> type of the mapped object
+ */
+@FunctionalInterface
+public interface RowReader<T> {
+    T read(ResultSetRow row) throws SQLException;
+}
@@ -0,0 +1,102 @@
+package com.bobocode.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Histogram} is a lock-free histogram of non-negative {@code long} values with log-linear buckets (in the spirit
+ * of HdrHistogram). Each power-of-two range is split into 16 linear sub-buckets, so every recorded value is kept with
+ * a relative error below 7%, while the whole histogram takes a fixed amount of memory. It can be called on hot paths
+ * from many threads: the count and the sum are {@link LongAdder}s that spread concurrent updates over per-thread
+ * cells, the bucket counter is one of many, and min and max are written only when a value improves them, which soon
+ * becomes rare.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value recorded value
+     */
+    public void record(long value) {
+        long nonNegativeValue = Math.max(value, 0);
+        counts.incrementAndGet(bucketIndex(nonNegativeValue));
+        totalCount.increment();
+        totalSum.add(nonNegativeValue);
+        // reading a rarely written value is cheap, while a CAS takes the cache line exclusively
+        if (nonNegativeValue < minValue.get()) {
+            updateMin(nonNegativeValue);
+        }
+        if (nonNegativeValue > maxValue.get()) {
+            updateMax(nonNegativeValue);
+        }
+    }
+
+    private void updateMin(long value) {
+        long current;
+        while (value < (current = minValue.get()) && !minValue.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    private void updateMax(long value) {
+        long current;
+        while (value > (current = maxValue.get()) && !maxValue.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (subBucket - HALF_SUB_BUCKET_COUNT);
+    }
+
+    static long bucketUpperBound(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int offset = bucketIndex - SUB_BUCKET_COUNT;
+        int shift = offset / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = offset % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        long nextLowerBound = (subBucket + 1) << shift;
+        return nextLowerBound <= 0 ? Long.MAX_VALUE : nextLowerBound - 1;
+    }
+
+    /**
+     * Creates a point-in-time copy of the histogram. Values recorded concurrently with the snapshot may or may not
+     * be included.
+     *
+     * @return histogram snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+            count += bucketCounts[i];
+        }
+        return new HistogramSnapshot(bucketCounts, count, totalSum.sum(), minValue.get(), maxValue.get());
+    }
+
+    /**
+     * @return a number of recorded values
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+}
@@ -0,0 +1,84 @@
+package com.bobocode.util.metrics;
+
+/**
+ * {@link HistogramSnapshot} is an immutable copy of {@link Histogram} that allows to calculate percentiles. Percentile
+ * values are the upper bounds of histogram buckets, so they can exceed the real value by a few percent, but never
+ * exceed the max recorded value.
+ */
+public class HistogramSnapshot {
+    private final long[] bucketCounts;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    HistogramSnapshot(long[] bucketCounts, long count, long sum, long min, long max) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.sum = sum;
+        this.min = count == 0 ? 0 : min;
+        this.max = count == 0 ? 0 : max;
+    }
+
+    /**
+     * Returns the value that is greater than or equal to a given percent of recorded values
+     *
+     * @param percentile a number between 0 and 100
+     * @return value at percentile, or zero when histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile should be between 0 and 100");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(Histogram.bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getMedian() {
+        return getValueAtPercentile(50);
+    }
+
+    public long get95thPercentile() {
+        return getValueAtPercentile(95);
+    }
+
+    public long get99thPercentile() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, min=%d, p50=%d, p95=%d, p99=%d, max=%d, mean=%.1f",
+                count, min, getMedian(), get95thPercentile(), get99thPercentile(), max, getMean());
+    }
+}
@@ -0,0 +1,271 @@
+package com.bobocode.util.metrics;
+
+import com.bobocode.util.DelegatingDataSource;
+import com.bobocode.util.ProxyUtil;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * {@link InstrumentedDataSource} decorates a {@link DataSource} and collects {@link JdbcMetrics}: connection acquire
+ * latency, and per SQL shape execute latency, a number of rows fetched from result sets, and batch sizes. Connections,
+ * statements and result sets are wrapped into proxies, so the code that uses the data source doesn't need to change.
+ * <p>
+ * When a {@link SlowQueryLog} is configured, prepared statement parameters are captured by reference into a reused
+ * array, and statements that exceed the threshold are reported with their SQL, parameters and rows affected.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+    private static final Object[] NO_PARAMETERS = new Object[0];
+    private final JdbcMetrics metrics = new JdbcMetrics();
+    private final SlowQueryLog slowQueryLog;
+
+    public InstrumentedDataSource(DataSource targetDataSource) {
+        this(targetDataSource, (SlowQueryLog) null);
+    }
+
+    public InstrumentedDataSource(DataSource targetDataSource, Duration slowQueryThreshold) {
+        this(targetDataSource, new SlowQueryLog(slowQueryThreshold));
+    }
+
+    public InstrumentedDataSource(DataSource targetDataSource, SlowQueryLog slowQueryLog) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    public JdbcMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = targetDataSource.getConnection();
+        metrics.getConnectionAcquireNanos().record(System.nanoTime() - start);
+        return wrapConnection(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = targetDataSource.getConnection(username, password);
+        metrics.getConnectionAcquireNanos().record(System.nanoTime() - start);
+        return wrapConnection(connection);
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        ConnectionHandler handler = new ConnectionHandler(connection);
+        handler.proxy = ProxyUtil.createProxy(Connection.class, handler);
+        return handler.proxy;
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private Connection proxy;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProxyUtil.invoke(connection, method, args);
+            if (result instanceof Statement) {
+                String sql = method.getName().equals("createStatement") ? null : (String) args[0];
+                StatementHandler handler = new StatementHandler((Statement) result, this.proxy, sql);
+                handler.proxy = ProxyUtil.createProxy((Class<Statement>) method.getReturnType(), handler);
+                return handler.proxy;
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final Connection connectionProxy;
+        private final String preparedSql;
+        private final StatementMetrics preparedStatementMetrics;
+        private Statement proxy;
+        private Object[] parameters = NO_PARAMETERS;
+        private int parameterCount;
+        private StatementMetrics lastExecutedMetrics;
+        private StatementMetrics batchMetrics;
+        private int batchSize;
+
+        private StatementHandler(Statement statement, Connection connectionProxy, String preparedSql) {
+            this.statement = statement;
+            this.connectionProxy = connectionProxy;
+            this.preparedSql = preparedSql;
+            this.preparedStatementMetrics = preparedSql == null ? null
+                    : metrics.getStatementMetrics(metrics.getSqlShape(preparedSql));
+            this.batchMetrics = preparedStatementMetrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if (methodName.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (slowQueryLog != null && preparedSql != null) {
+                captureParameter(methodName, args);
+            }
+            switch (methodName) {
+                case "addBatch":
+                    if (batchMetrics == null) {
+                        batchMetrics = metrics.getStatementMetrics(metrics.getSqlShape((String) args[0]));
+                    }
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    batchMetrics = preparedStatementMetrics;
+                    break;
+                case "getConnection":
+                    return connectionProxy;
+                case "getResultSet":
+                    return wrapResultSet((ResultSet) ProxyUtil.invoke(statement, method, args), lastExecutedMetrics);
+                default:
+                    break;
+            }
+            return ProxyUtil.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            boolean batch = method.getName().endsWith("Batch");
+            StatementMetrics statementMetrics = resolveMetrics(args, batch);
+            if (batch) {
+                statementMetrics.getBatchSizes().record(batchSize);
+                batchSize = 0;
+                batchMetrics = preparedStatementMetrics;
+            }
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = ProxyUtil.invoke(statement, method, args);
+                return result instanceof ResultSet ? wrapResultSet((ResultSet) result, statementMetrics) : result;
+            } finally {
+                long elapsedNanos = System.nanoTime() - start;
+                statementMetrics.getExecuteNanos().record(elapsedNanos);
+                lastExecutedMetrics = statementMetrics;
+                if (slowQueryLog != null && slowQueryLog.isSlow(elapsedNanos)) {
+                    logSlowQuery(args, result, elapsedNanos);
+                }
+            }
+        }
+
+        private void captureParameter(String methodName, Object[] args) {
+            if (methodName.equals("clearParameters")) {
+                Arrays.fill(parameters, 0, parameterCount, null);
+                parameterCount = 0;
+            } else if (methodName.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                int index = (Integer) args[0] - 1;
+                if (index < 0) {
+                    return;
+                }
+                if (index >= parameters.length) {
+                    parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+                }
+                parameters[index] = methodName.equals("setNull") ? null : args[1];
+                parameterCount = Math.max(parameterCount, index + 1);
+            }
+        }
+
+        private void logSlowQuery(Object[] args, Object result, long elapsedNanos) {
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : "<batch>";
+            slowQueryLog.log(sql, parameters, parameterCount, elapsedNanos, rowsAffected(result));
+        }
+
+        private long rowsAffected(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                return Arrays.stream((int[]) result).filter(count -> count > 0).asLongStream().sum();
+            }
+            if (result instanceof long[]) {
+                return Arrays.stream((long[]) result).filter(count -> count > 0).sum();
+            }
+            if (Boolean.FALSE.equals(result)) {
+                try {
+                    return statement.getUpdateCount();
+                } catch (SQLException e) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        private StatementMetrics resolveMetrics(Object[] args, boolean batch) {
+            if (batch) {
+                return batchMetrics != null ? batchMetrics : metrics.getStatementMetrics(JdbcMetrics.OTHER_SQL_SHAPE);
+            }
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                return metrics.getStatementMetrics(metrics.getSqlShape((String) args[0]));
+            }
+            return preparedStatementMetrics;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, StatementMetrics statementMetrics) {
+            if (resultSet == null || statementMetrics == null) {
+                return resultSet;
+            }
+            return ProxyUtil.createProxy(ResultSet.class, new ResultSetHandler(resultSet, proxy, statementMetrics));
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final Statement statementProxy;
+        private final StatementMetrics statementMetrics;
+        private long rows;
+        private boolean recorded;
+
+        private ResultSetHandler(ResultSet resultSet, Statement statementProxy, StatementMetrics statementMetrics) {
+            this.resultSet = resultSet;
+            this.statementProxy = statementProxy;
+            this.statementMetrics = statementMetrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    boolean hasRow = resultSet.next();
+                    if (hasRow) {
+                        rows++;
+                    } else {
+                        recordRows();
+                    }
+                    return hasRow;
+                case "close":
+                    recordRows();
+                    resultSet.close();
+                    return null;
+                case "getStatement":
+                    return statementProxy;
+                default:
+                    return ProxyUtil.invoke(resultSet, method, args);
+            }
+        }
+
+        private void recordRows() {
+            if (!recorded) {
+                recorded = true;
+                statementMetrics.getRowsFetched().record(rows);
+            }
+        }
+    }
+}
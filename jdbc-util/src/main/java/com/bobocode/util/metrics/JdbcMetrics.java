@@ -0,0 +1,91 @@
+package com.bobocode.util.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * {@link JdbcMetrics} is a registry of the histograms collected by {@link InstrumentedDataSource}. Statement metrics
+ * are grouped by SQL shape: SQL text with collapsed whitespace, where string and number literals are replaced with
+ * {@code ?}. So {@code SELECT * FROM products WHERE id = 5} and the prepared {@code SELECT * FROM products WHERE id = ?}
+ * are reported together.
+ * <p>
+ * To keep memory bounded, only first {@link #MAX_SQL_SHAPES} distinct shapes are tracked separately, the rest are
+ * reported under {@link #OTHER_SQL_SHAPE}.
+ * <p>
+ * Turning SQL text into a shape takes a few regex passes, so shapes are memoized per raw SQL text with
+ * {@link #getSqlShape(String)}. The memo keeps at most {@link #MAX_CACHED_SQL} entries, SQL text that does not fit
+ * (typically plain statements with inlined literals) is shaped on every call.
+ */
+public class JdbcMetrics {
+    public static final int MAX_SQL_SHAPES = 1000;
+    public static final String OTHER_SQL_SHAPE = "<other>";
+    public static final int MAX_CACHED_SQL = 10_000;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Histogram connectionAcquireNanos = new Histogram();
+    private final Map<String, StatementMetrics> statementMetrics = new ConcurrentHashMap<>();
+    private final Map<String, String> sqlShapes = new ConcurrentHashMap<>();
+
+    /**
+     * Turns SQL text into its shape by replacing literals with {@code ?} and collapsing whitespace
+     *
+     * @param sql SQL text
+     * @return SQL shape
+     */
+    public static String toSqlShape(String sql) {
+        String withoutStrings = STRING_LITERAL.matcher(sql).replaceAll("?");
+        String withoutNumbers = NUMBER_LITERAL.matcher(withoutStrings).replaceAll("?");
+        return WHITESPACE.matcher(withoutNumbers).replaceAll(" ").trim();
+    }
+
+    /**
+     * Returns the shape of SQL text like {@link #toSqlShape(String)} does, but memoizes it per SQL text
+     *
+     * @param sql SQL text
+     * @return SQL shape
+     */
+    public String getSqlShape(String sql) {
+        String sqlShape = sqlShapes.get(sql);
+        if (sqlShape != null) {
+            return sqlShape;
+        }
+        sqlShape = toSqlShape(sql);
+        if (sqlShapes.size() < MAX_CACHED_SQL) {
+            sqlShapes.putIfAbsent(sql, sqlShape);
+        }
+        return sqlShape;
+    }
+
+    /**
+     * @return time spent in {@link javax.sql.DataSource#getConnection()} in nanoseconds
+     */
+    public Histogram getConnectionAcquireNanos() {
+        return connectionAcquireNanos;
+    }
+
+    /**
+     * Returns metrics of a given SQL shape, creating them on first access
+     *
+     * @param sqlShape SQL shape created by {@link #toSqlShape(String)}
+     * @return statement metrics
+     */
+    public StatementMetrics getStatementMetrics(String sqlShape) {
+        StatementMetrics metrics = statementMetrics.get(sqlShape);
+        if (metrics != null) {
+            return metrics;
+        }
+        String trackedShape = statementMetrics.size() < MAX_SQL_SHAPES ? sqlShape : OTHER_SQL_SHAPE;
+        return statementMetrics.computeIfAbsent(trackedShape, StatementMetrics::new);
+    }
+
+    /**
+     * @return metrics of all SQL shapes that were executed so far
+     */
+    public Map<String, StatementMetrics> getStatementMetrics() {
+        return Collections.unmodifiableMap(statementMetrics);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bobocode.util.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SlowQueryEntry} describes one statement execution that exceeded the {@link SlowQueryLog} threshold
+ */
+@Getter
+@AllArgsConstructor
+public class SlowQueryEntry {
+    private final String sql;
+    /**
+     * Parameters bound to a prepared statement by index (the first element is parameter 1)
+     */
+    private final List<Object> parameters;
+    private final long elapsedNanos;
+    /**
+     * A number of rows affected by an update or a batch, or {@code -1} for queries and unknown results
+     */
+    private final long rowsAffected;
+    /**
+     * The first method outside of JDBC driver and decorators (e.g. a DAO method) that executed a statement
+     */
+    private final String caller;
+
+    @Override
+    public String toString() {
+        return String.format("Slow statement took %d ms in %s: %s; parameters: %s; rows affected: %s",
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), caller, sql, parameters,
+                rowsAffected < 0 ? "n/a" : rowsAffected);
+    }
+}
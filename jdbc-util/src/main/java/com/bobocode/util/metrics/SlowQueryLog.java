@@ -0,0 +1,75 @@
+package com.bobocode.util.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link SlowQueryLog} logs statements that take longer than a configured threshold. {@link InstrumentedDataSource}
+ * compares the elapsed time with the threshold first, and builds {@link SlowQueryEntry} (SQL, parameters, rows
+ * affected and the calling method) only for slow statements, so fast statements pay for a single comparison.
+ * <p>
+ * Entries are logged with WARN level. Override {@link #report(SlowQueryEntry)} to send them elsewhere.
+ */
+public class SlowQueryLog {
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final Set<String> INFRASTRUCTURE_PACKAGES = Set.of(
+            "com.bobocode.util.", "java.", "jdk.", "sun.", "com.sun.", "org.h2.", "org.postgresql.");
+    private final long thresholdNanos;
+    private final AtomicLong slowQueryCount = new AtomicLong();
+
+    public SlowQueryLog(Duration threshold) {
+        if (threshold.isNegative()) {
+            throw new IllegalArgumentException("Slow query threshold should not be negative");
+        }
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * @param elapsedNanos statement execution time
+     * @return {@code true} if the statement should be logged
+     */
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    void log(String sql, Object[] parameters, int parameterCount, long elapsedNanos, long rowsAffected) {
+        slowQueryCount.incrementAndGet();
+        List<Object> parameterList = Arrays.asList(Arrays.copyOf(parameters, parameterCount));
+        report(new SlowQueryEntry(sql, parameterList, elapsedNanos, rowsAffected, findCaller()));
+    }
+
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !isInfrastructureClass(frame.getClassName()))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static boolean isInfrastructureClass(String className) {
+        return className.startsWith("com.sun.proxy.") || className.startsWith("jdk.proxy")
+                || INFRASTRUCTURE_PACKAGES.stream().anyMatch(className::startsWith);
+    }
+
+    /**
+     * Writes a slow query entry to the log
+     *
+     * @param entry slow query entry
+     */
+    protected void report(SlowQueryEntry entry) {
+        logger.warn("{}", entry);
+    }
+
+    /**
+     * @return a number of slow statements reported so far
+     */
+    public long getSlowQueryCount() {
+        return slowQueryCount.get();
+    }
+}
@@ -0,0 +1,40 @@
+package com.bobocode.util.metrics;
+
+/**
+ * {@link StatementMetrics} holds the histograms collected for one SQL shape
+ */
+public class StatementMetrics {
+    private final String sqlShape;
+    private final Histogram executeNanos = new Histogram();
+    private final Histogram rowsFetched = new Histogram();
+    private final Histogram batchSizes = new Histogram();
+
+    StatementMetrics(String sqlShape) {
+        this.sqlShape = sqlShape;
+    }
+
+    public String getSqlShape() {
+        return sqlShape;
+    }
+
+    /**
+     * @return time spent in {@code execute*} calls in nanoseconds
+     */
+    public Histogram getExecuteNanos() {
+        return executeNanos;
+    }
+
+    /**
+     * @return a number of rows read from each result set
+     */
+    public Histogram getRowsFetched() {
+        return rowsFetched;
+    }
+
+    /**
+     * @return a number of statements sent in each {@code executeBatch} call
+     */
+    public Histogram getBatchSizes() {
+        return batchSizes;
+    }
+}
@@ -0,0 +1,51 @@
+package com.bobocode.util.pool;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * {@link PoolConfig} holds the settings of {@link PooledDataSource}. Use {@link PoolConfig#builder()} to override
+ * any of the default values.
+ */
+@Getter
+@Builder
+@ToString
+public class PoolConfig {
+    /**
+     * A number of physical connections that pool tries to keep open even if they are idle
+     */
+    @Builder.Default
+    private int minSize = 0;
+    /**
+     * Max number of physical connections that can be open at the same time
+     */
+    @Builder.Default
+    private int maxSize = 10;
+    /**
+     * Max time that {@link PooledDataSource#getConnection()} waits for a free connection
+     */
+    @Builder.Default
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+    /**
+     * A time after which an idle connection is closed (unless the pool would shrink below {@link #minSize})
+     */
+    @Builder.Default
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    /**
+     * How often the pool checks for idle connections
+     */
+    @Builder.Default
+    private Duration evictionInterval = Duration.ofSeconds(30);
+    /**
+     * Max number of prepared statements cached per physical connection. Zero disables statement caching
+     */
+    @Builder.Default
+    private int statementCacheSize = 0;
+
+    public static PoolConfig defaultConfig() {
+        return PoolConfig.builder().build();
+    }
+}
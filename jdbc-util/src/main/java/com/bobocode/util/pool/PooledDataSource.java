@@ -0,0 +1,434 @@
+package com.bobocode.util.pool;
+
+import com.bobocode.util.DelegatingDataSource;
+import com.bobocode.util.ProxyUtil;
+import com.bobocode.util.statement.StatementCachingHandler;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link PooledDataSource} is a bounded connection pool that wraps any {@link DataSource}. Physical connections are
+ * kept in a lock-free deque, so borrowing and returning a connection does not take any locks when the pool has a free
+ * connection. The number of open connections is limited by {@link PoolConfig#getMaxSize()}, and connections that stay
+ * idle longer than {@link PoolConfig#getIdleTimeout()} are closed by a background evictor.
+ * <p>
+ * Calling {@link Connection#close()} on a borrowed connection returns it to the pool. Statements left open by the
+ * borrower are closed, uncommitted changes are rolled back, and auto-commit, read-only and transaction isolation
+ * settings are restored before the connection is reused. When
+ * {@link PoolConfig#getStatementCacheSize()} is positive, each physical connection keeps its own cache of prepared
+ * statements that survives between borrowings.
+ */
+public class PooledDataSource extends DelegatingDataSource implements AutoCloseable {
+    private final PoolConfig config;
+    private final ConcurrentLinkedDeque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+    private final Lock availabilityLock = new ReentrantLock();
+    private final Condition connectionAvailable = availabilityLock.newCondition();
+    private final AtomicInteger waitingBorrowers = new AtomicInteger();
+    private volatile boolean closed;
+
+    public PooledDataSource(DataSource targetDataSource, PoolConfig config) {
+        super(targetDataSource);
+        validateConfig(config);
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize());
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pooled-data-source-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (config.getMinSize() > 0) {
+            evictor.execute(this::fillToMinSize);
+        }
+        long evictionIntervalMillis = config.getEvictionInterval().toMillis();
+        evictor.scheduleWithFixedDelay(this::maintain, evictionIntervalMillis, evictionIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static void validateConfig(PoolConfig config) {
+        if (config.getMaxSize() <= 0) {
+            throw new IllegalArgumentException("Pool max size should be positive");
+        }
+        if (config.getMinSize() < 0 || config.getMinSize() > config.getMaxSize()) {
+            throw new IllegalArgumentException("Pool min size should be between 0 and max size");
+        }
+        if (config.getStatementCacheSize() < 0) {
+            throw new IllegalArgumentException("Statement cache size should not be negative");
+        }
+        if (config.getEvictionInterval().isNegative() || config.getEvictionInterval().isZero()) {
+            throw new IllegalArgumentException("Eviction interval should be positive");
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        acquirePermit();
+        try {
+            return borrowConnection().createLogicalConnection();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        try {
+            if (!permits.tryAcquire(config.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException(String.format("Cannot acquire a connection within %d ms",
+                        config.getAcquireTimeout().toMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private PooledConnection borrowConnection() throws SQLException {
+        long deadlineNanos = System.nanoTime() + config.getAcquireTimeout().toNanos();
+        while (true) {
+            PooledConnection connection = pollIdleConnection();
+            if (connection != null) {
+                return connection;
+            }
+            if (reserveSlot(config.getMaxSize())) {
+                return openConnection();
+            }
+            // all slots are taken by connections that are being returned or opened by the evictor
+            awaitConnectionAvailable(deadlineNanos);
+        }
+    }
+
+    /**
+     * A borrower registers itself before checking the pool again, and {@link #signalConnectionAvailable()} checks for
+     * registered borrowers after changing the pool, so either the borrower sees the change, or it is woken up
+     */
+    private void awaitConnectionAvailable(long deadlineNanos) throws SQLException {
+        waitingBorrowers.incrementAndGet();
+        availabilityLock.lock();
+        try {
+            while (idleConnections.isEmpty() && totalConnections.get() >= config.getMaxSize()) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new SQLTimeoutException(String.format("Cannot acquire a connection within %d ms",
+                            config.getAcquireTimeout().toMillis()));
+                }
+                connectionAvailable.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            availabilityLock.unlock();
+            waitingBorrowers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wakes up waiting borrowers after a connection became idle or a slot was freed. Takes the lock only when there are
+     * waiting borrowers, so returning a connection stays lock-free in the common case.
+     */
+    private void signalConnectionAvailable() {
+        if (waitingBorrowers.get() > 0) {
+            availabilityLock.lock();
+            try {
+                connectionAvailable.signalAll();
+            } finally {
+                availabilityLock.unlock();
+            }
+        }
+    }
+
+    private PooledConnection pollIdleConnection() {
+        PooledConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            if (connection.isValid()) {
+                return connection;
+            }
+            discard(connection);
+        }
+        return null;
+    }
+
+    private boolean reserveSlot(int limit) {
+        int current;
+        do {
+            current = totalConnections.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!totalConnections.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection connection = null;
+        try {
+            connection = targetDataSource.getConnection();
+            if (config.getStatementCacheSize() > 0) {
+                connection = StatementCachingHandler.wrap(connection, config.getStatementCacheSize());
+            }
+            return new PooledConnection(connection);
+        } catch (SQLException | RuntimeException e) {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            totalConnections.decrementAndGet();
+            signalConnectionAvailable();
+            throw e;
+        }
+    }
+
+    private void returnConnection(PooledConnection connection, LogicalConnectionHandler borrowing) {
+        try {
+            if (closed || !connection.reset(borrowing)) {
+                discard(connection);
+            } else {
+                connection.lastUsedNanos = System.nanoTime();
+                idleConnections.offerFirst(connection);
+                signalConnectionAvailable();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        totalConnections.decrementAndGet();
+        connection.closePhysicalConnection();
+        signalConnectionAvailable();
+    }
+
+    private void maintain() {
+        evictIdleConnections();
+        fillToMinSize();
+    }
+
+    private void evictIdleConnections() {
+        long idleTimeoutNanos = config.getIdleTimeout().toNanos();
+        long now = System.nanoTime();
+        Iterator<PooledConnection> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > config.getMinSize()) {
+            PooledConnection connection = oldestFirst.next();
+            if (now - connection.lastUsedNanos >= idleTimeoutNanos && idleConnections.removeLastOccurrence(connection)) {
+                discard(connection);
+            }
+        }
+    }
+
+    private void fillToMinSize() {
+        while (!closed && reserveSlot(config.getMinSize())) {
+            try {
+                PooledConnection connection = openConnection();
+                connection.lastUsedNanos = System.nanoTime();
+                idleConnections.offerLast(connection);
+                signalConnectionAvailable();
+            } catch (SQLException | RuntimeException e) {
+                return; // the next maintenance run will try again
+            }
+        }
+    }
+
+    private static boolean isClosedQuietly(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the evictor. Connections that are currently borrowed are closed when
+     * they are returned to the pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    /**
+     * @return a number of physical connections that are currently open (both idle and borrowed)
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * @return a number of physical connections that are waiting in the pool
+     */
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the credentials of a target DataSource");
+    }
+
+    /**
+     * A physical connection that is owned by the pool. Each borrowing creates a new logical connection proxy,
+     * so a connection that was already returned cannot be used by mistake.
+     */
+    private class PooledConnection {
+        private final Connection physicalConnection;
+        private final boolean defaultReadOnly;
+        private final int defaultTransactionIsolation;
+        private volatile long lastUsedNanos;
+
+        private PooledConnection(Connection physicalConnection) throws SQLException {
+            this.physicalConnection = physicalConnection;
+            this.defaultReadOnly = physicalConnection.isReadOnly();
+            this.defaultTransactionIsolation = physicalConnection.getTransactionIsolation();
+        }
+
+        private Connection createLogicalConnection() {
+            return ProxyUtil.createProxy(Connection.class, new LogicalConnectionHandler(this));
+        }
+
+        private boolean isValid() {
+            try {
+                return !physicalConnection.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Settings are restored only when the borrower has changed them, because reading them can cost a round trip
+         */
+        private boolean reset(LogicalConnectionHandler borrowing) {
+            try {
+                borrowing.closeOpenStatements();
+                if (!physicalConnection.getAutoCommit()) {
+                    physicalConnection.rollback();
+                    physicalConnection.setAutoCommit(true);
+                }
+                if (borrowing.readOnlyChanged) {
+                    physicalConnection.setReadOnly(defaultReadOnly);
+                }
+                if (borrowing.transactionIsolationChanged) {
+                    physicalConnection.setTransactionIsolation(defaultTransactionIsolation);
+                }
+                physicalConnection.clearWarnings();
+                return !physicalConnection.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void closePhysicalConnection() {
+            try {
+                physicalConnection.close();
+            } catch (SQLException ignored) {
+                // the connection is dropped anyway
+            }
+        }
+    }
+
+    private class LogicalConnectionHandler implements InvocationHandler {
+        private static final int OPEN_STATEMENTS_PRUNE_THRESHOLD = 16;
+        private final PooledConnection pooledConnection;
+        private final AtomicBoolean returned = new AtomicBoolean();
+        private final List<Statement> openStatements = new ArrayList<>();
+        private boolean readOnlyChanged;
+        private boolean transactionIsolationChanged;
+
+        private LogicalConnectionHandler(PooledConnection pooledConnection) {
+            this.pooledConnection = pooledConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        returnConnection(pooledConnection, this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || pooledConnection.physicalConnection.isClosed();
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : pooledConnection.physicalConnection.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || pooledConnection.physicalConnection.isWrapperFor((Class<?>) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooledConnection.physicalConnection;
+                default:
+                    if (returned.get()) {
+                        throw new SQLException("Connection is already returned to the pool");
+                    }
+                    Object result = ProxyUtil.invoke(pooledConnection.physicalConnection, method, args);
+                    onInvoked(method, result);
+                    return result;
+            }
+        }
+
+        private void onInvoked(Method method, Object result) {
+            if (result instanceof Statement) {
+                if (openStatements.size() >= OPEN_STATEMENTS_PRUNE_THRESHOLD) {
+                    openStatements.removeIf(PooledDataSource::isClosedQuietly);
+                }
+                openStatements.add((Statement) result);
+            } else if (method.getName().equals("setReadOnly")) {
+                readOnlyChanged = true;
+            } else if (method.getName().equals("setTransactionIsolation")) {
+                transactionIsolationChanged = true;
+            }
+        }
+
+        private void closeOpenStatements() {
+            for (Statement statement : openStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // the statement is dropped anyway
+                }
+            }
+            openStatements.clear();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bobocode.util.statement;
+
+import com.bobocode.util.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * {@link StatementCachingDataSource} wraps every connection of a target {@link DataSource} into
+ * {@link StatementCachingHandler}. Without a pool the cache lives only as long as a connection, so prefer
+ * {@link com.bobocode.util.pool.PoolConfig#getStatementCacheSize()} when connections are pooled.
+ */
+public class StatementCachingDataSource extends DelegatingDataSource {
+    private final int cacheSize;
+
+    public StatementCachingDataSource(DataSource targetDataSource, int cacheSize) {
+        super(targetDataSource);
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Statement cache size should be positive");
+        }
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return StatementCachingHandler.wrap(targetDataSource.getConnection(), cacheSize);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return StatementCachingHandler.wrap(targetDataSource.getConnection(username, password), cacheSize);
+    }
+}
@@ -0,0 +1,243 @@
+package com.bobocode.util.statement;
+
+import com.bobocode.util.ProxyUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link StatementCachingHandler} is a {@link Connection} proxy handler that decorates a connection with an LRU cache of {@link PreparedStatement}s
+ * keyed by SQL text (and the rest of {@code prepareStatement} arguments). Calling {@link PreparedStatement#close()} on
+ * a cached statement does not close it, but returns it to the cache, so the next {@code prepareStatement} with the same
+ * SQL skips driver-side parsing and planning. Parameters, batches and statement settings such as fetch size, max rows,
+ * query timeout and fetch direction are reset when a statement is returned, so the next user gets a statement in its
+ * initial state. Cached statements are closed when they are evicted from the cache or
+ * when the connection itself is closed.
+ * <p>
+ * A statement that is already in use is never handed out twice. If the same SQL is prepared again before the first
+ * statement is closed, a regular uncached statement is returned.
+ */
+public class StatementCachingHandler implements InvocationHandler {
+    private final Connection connection;
+    private final Map<StatementKey, CachedStatement> cache;
+    private Connection proxy;
+
+    private StatementCachingHandler(Connection connection, int cacheSize) {
+        this.connection = connection;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+                if (size() > cacheSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Wraps a given connection into a proxy that caches prepared statements
+     *
+     * @param connection a physical connection
+     * @param cacheSize  max number of statements cached for this connection
+     * @return connection proxy
+     */
+    public static Connection wrap(Connection connection, int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Statement cache size should be positive");
+        }
+        StatementCachingHandler handler = new StatementCachingHandler(connection, cacheSize);
+        handler.proxy = ProxyUtil.createProxy(Connection.class, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement":
+                return prepareStatement(method, args);
+            case "close":
+                closeCachedStatements();
+                connection.close();
+                return null;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return ProxyUtil.invoke(connection, method, args);
+        }
+    }
+
+    private PreparedStatement prepareStatement(Method method, Object[] args) throws Throwable {
+        StatementKey key = new StatementKey(args);
+        CachedStatement cachedStatement;
+        synchronized (cache) {
+            cachedStatement = cache.get(key);
+            if (cachedStatement == null) {
+                PreparedStatement statement = (PreparedStatement) ProxyUtil.invoke(connection, method, args);
+                cachedStatement = new CachedStatement(key, statement);
+                cache.put(key, cachedStatement);
+            } else if (cachedStatement.inUse) {
+                return (PreparedStatement) ProxyUtil.invoke(connection, method, args);
+            }
+            cachedStatement.inUse = true;
+        }
+        return ProxyUtil.createProxy(PreparedStatement.class, new LogicalStatementHandler(cachedStatement));
+    }
+
+    private void closeCachedStatements() {
+        synchronized (cache) {
+            cache.values().forEach(CachedStatement::evict);
+            cache.clear();
+        }
+    }
+
+    private static class StatementKey {
+        private final Object[] prepareArgs;
+        private final int hashCode;
+
+        private StatementKey(Object[] prepareArgs) {
+            this.prepareArgs = prepareArgs;
+            this.hashCode = Arrays.deepHashCode(prepareArgs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StatementKey && Arrays.deepEquals(prepareArgs, ((StatementKey) o).prepareArgs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private class CachedStatement {
+        private final StatementKey key;
+        private final PreparedStatement statement;
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private final int defaultFetchDirection;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(StatementKey key, PreparedStatement statement) throws SQLException {
+            this.key = key;
+            this.statement = statement;
+            this.defaultFetchSize = statement.getFetchSize();
+            this.defaultMaxRows = statement.getMaxRows();
+            this.defaultQueryTimeout = statement.getQueryTimeout();
+            this.defaultFetchDirection = statement.getFetchDirection();
+        }
+
+        private void restoreDefaultSettings() throws SQLException {
+            // max rows goes first, as some drivers reject a fetch size that is larger than max rows
+            if (statement.getMaxRows() != defaultMaxRows) {
+                statement.setMaxRows(defaultMaxRows);
+            }
+            if (statement.getFetchSize() != defaultFetchSize) {
+                statement.setFetchSize(defaultFetchSize);
+            }
+            if (statement.getQueryTimeout() != defaultQueryTimeout) {
+                statement.setQueryTimeout(defaultQueryTimeout);
+            }
+            if (statement.getFetchDirection() != defaultFetchDirection) {
+                statement.setFetchDirection(defaultFetchDirection);
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly(statement);
+            }
+        }
+
+        private void release(boolean reusable) {
+            synchronized (cache) {
+                inUse = false;
+                if (!reusable && !evicted) {
+                    cache.remove(key);
+                    evicted = true;
+                }
+                if (evicted) {
+                    closeQuietly(statement);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // the statement is dropped anyway
+        }
+    }
+
+    private class LogicalStatementHandler implements InvocationHandler {
+        private final CachedStatement cachedStatement;
+        private final List<ResultSet> openResultSets = new ArrayList<>(1);
+        private boolean closed;
+
+        private LogicalStatementHandler(CachedStatement cachedStatement) {
+            this.cachedStatement = cachedStatement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cachedStatement.release(resetStatement());
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cachedStatement.statement.isClosed();
+                case "getConnection":
+                    return StatementCachingHandler.this.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    Object result = ProxyUtil.invoke(cachedStatement.statement, method, args);
+                    if (result instanceof ResultSet) {
+                        openResultSets.add((ResultSet) result);
+                    }
+                    return result;
+            }
+        }
+
+        private boolean resetStatement() {
+            openResultSets.forEach(StatementCachingHandler::closeQuietly);
+            openResultSets.clear();
+            try {
+                PreparedStatement statement = cachedStatement.statement;
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                cachedStatement.restoreDefaultSettings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+}
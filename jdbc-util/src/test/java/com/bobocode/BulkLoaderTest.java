@@ -0,0 +1,135 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.bulk.BulkLoadMapping;
+import com.bobocode.util.bulk.BulkLoader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class BulkLoaderTest {
+    private static final BulkLoadMapping<Long> ITEMS = BulkLoadMapping.of("items",
+            List.of("id", "name", "price", "valid_until"),
+            (id, writer) -> {
+                writer.writeLong(id);
+                writer.writeString(id % 10 == 0 ? null : "item " + id);
+                writer.writeDecimal(BigDecimal.valueOf(id, 2));
+                writer.writeDate(LocalDate.of(2030, 1, 1).plusDays(id));
+            });
+    private static final BulkLoadMapping<Long> POSTGRES_ITEMS = BulkLoadMapping.of("bulk_loader_items",
+            ITEMS.getColumns(), ITEMS.getRowEncoder());
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:bulk_load_db;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(255), " +
+                    "price DECIMAL(19, 4), valid_until DATE)");
+        }
+    }
+
+    @BeforeEach
+    void cleanUp() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("DELETE FROM items");
+        }
+    }
+
+    @Test
+    void testLoadFallsBackToBatchedInsert() throws SQLException {
+        BulkLoader bulkLoader = new BulkLoader(dataSource, 100, 1024);
+
+        long rowCount = bulkLoader.load(ITEMS, LongStream.rangeClosed(1, 2_550).boxed());
+
+        assertEquals(2_550, rowCount);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*), count(name), sum(price) FROM items")) {
+            resultSet.next();
+            assertEquals(2_550, resultSet.getLong(1));
+            assertEquals(2_295, resultSet.getLong(2));
+            assertEquals(0, BigDecimal.valueOf(32_525_25, 2).compareTo(resultSet.getBigDecimal(3)));
+        }
+    }
+
+    @Test
+    void testMappingRejectsInvalidIdentifiers() {
+        assertThrows(IllegalArgumentException.class, () -> BulkLoadMapping.<Long>of("items; DROP TABLE items",
+                List.of("id"), (id, writer) -> writer.writeLong(id)));
+        assertThrows(IllegalArgumentException.class, () -> BulkLoadMapping.<Long>of("items",
+                List.of("id", "name) VALUES (1, 'x')--"), (id, writer) -> writer.writeLong(id)));
+        BulkLoadMapping.<Long>of("public.items", List.of("id", "valid_until"), (id, writer) -> writer.writeLong(id));
+    }
+
+    @Test
+    void testFailedLoadInsertsNothing() throws SQLException {
+        BulkLoader bulkLoader = new BulkLoader(dataSource, 100, 1024);
+
+        assertThrows(SQLException.class, () -> bulkLoader.load(ITEMS, List.of(1L, 2L, 3L, 2L)));
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM items")) {
+            resultSet.next();
+            assertEquals(0, resultSet.getLong(1));
+        }
+    }
+
+    /**
+     * Runs the {@code COPY} path against the default local PostgreSQL database, see
+     * {@link JdbcUtil#createDefaultPostgresDataSource()}. Skipped if the database is not available.
+     */
+    @Test
+    void testCopyIntoPostgres() throws SQLException {
+        DataSource postgresDataSource = createPostgresItemsTable();
+        BulkLoader bulkLoader = new BulkLoader(postgresDataSource, 100, 1024);
+
+        long rowCount = bulkLoader.load(POSTGRES_ITEMS, LongStream.rangeClosed(1, 2_550).boxed());
+        assertThrows(SQLException.class,
+                () -> bulkLoader.load(POSTGRES_ITEMS, List.of(10_000L, 10_001L, 10_000L)));
+
+        assertEquals(2_550, rowCount);
+        try (Connection connection = postgresDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT count(*), count(name), sum(price), max(valid_until) FROM bulk_loader_items")) {
+            resultSet.next();
+            assertEquals(2_550, resultSet.getLong(1));
+            assertEquals(2_295, resultSet.getLong(2));
+            assertEquals(0, BigDecimal.valueOf(32_525_25, 2).compareTo(resultSet.getBigDecimal(3)));
+            assertEquals(LocalDate.of(2030, 1, 1).plusDays(2_550), resultSet.getDate(4).toLocalDate());
+        } finally {
+            try (Connection connection = postgresDataSource.getConnection()) {
+                connection.createStatement().execute("DROP TABLE bulk_loader_items");
+            }
+        }
+    }
+
+    private static DataSource createPostgresItemsTable() {
+        DataSource postgresDataSource = JdbcUtil.createDefaultPostgresDataSource();
+        try (Connection connection = postgresDataSource.getConnection()) {
+            connection.createStatement().execute("DROP TABLE IF EXISTS bulk_loader_items");
+            connection.createStatement().execute("CREATE TABLE bulk_loader_items (id BIGINT PRIMARY KEY, " +
+                    "name VARCHAR(255), price DECIMAL(19, 4), valid_until DATE)");
+            return postgresDataSource;
+        } catch (SQLException e) {
+            assumeTrue(false, "PostgreSQL is not available: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bobocode;
+
+import com.bobocode.util.FileReader;
+import com.bobocode.util.FileReaderException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FileReaderTest {
+    private static final String TEST_SCRIPT_FILE = "db/test_script.sql";
+
+    @Test
+    void testStreamSqlStatements() {
+        List<String> statements;
+        try (Stream<String> statementStream = FileReader.streamSqlStatements(TEST_SCRIPT_FILE)) {
+            statements = statementStream.collect(toList());
+        }
+
+        assertThat(statements, contains(
+                "CREATE TABLE notes (id BIGINT, text VARCHAR(255))",
+                "INSERT INTO notes VALUES (1, 'semicolon; inside')",
+                "INSERT INTO notes VALUES (2, 'it''s quoted; too')",
+                "CREATE FUNCTION touch() RETURNS trigger AS $$\n" +
+                        "BEGIN\n" +
+                        "  NEW.text := 'touched;';\n" +
+                        "  RETURN NEW;\n" +
+                        "END;\n" +
+                        "$$ LANGUAGE plpgsql",
+                "SELECT \"odd;name\" FROM notes WHERE text = $tag$a;b$tag$"));
+    }
+
+    @Test
+    void testStreamSqlStatementsIsLazy() {
+        try (Stream<String> statementStream = FileReader.streamSqlStatements(TEST_SCRIPT_FILE)) {
+            String firstStatement = statementStream.findFirst().orElseThrow();
+
+            assertThat(firstStatement, is("CREATE TABLE notes (id BIGINT, text VARCHAR(255))"));
+        }
+    }
+
+    @Test
+    void testFullyReadScriptIsCached() {
+        String firstRead = readFirstStatementAfterFullRead();
+        String secondRead = readFirstStatementAfterFullRead();
+        String thirdRead = readFirstStatementAfterFullRead();
+
+        assertThat(secondRead, is(firstRead));
+        assertThat(thirdRead, sameInstance(secondRead));
+    }
+
+    private String readFirstStatementAfterFullRead() {
+        try (Stream<String> statementStream = FileReader.streamSqlStatements(TEST_SCRIPT_FILE)) {
+            return statementStream.collect(toList()).get(0);
+        }
+    }
+
+    @Test
+    void testReadWholeFileIsCached() {
+        String content = FileReader.readWholeFileFromResources(TEST_SCRIPT_FILE);
+
+        assertThat(content, startsWith("/*\n  Test script;"));
+        assertThat(FileReader.readWholeFileFromResources(TEST_SCRIPT_FILE), sameInstance(content));
+    }
+
+    @Test
+    void testMissingFile() {
+        assertThrows(FileReaderException.class, () -> FileReader.streamSqlStatements("db/missing.sql"));
+    }
+}
@@ -0,0 +1,184 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.metrics.Histogram;
+import com.bobocode.util.metrics.HistogramSnapshot;
+import com.bobocode.util.metrics.InstrumentedDataSource;
+import com.bobocode.util.metrics.JdbcMetrics;
+import com.bobocode.util.metrics.SlowQueryEntry;
+import com.bobocode.util.metrics.SlowQueryLog;
+import com.bobocode.util.metrics.StatementMetrics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class InstrumentedDataSourceTest {
+    private static InstrumentedDataSource instrumentedDataSource;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        instrumentedDataSource = JdbcUtil.createInstrumentedDataSource(
+                JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:instrumented_db;DB_CLOSE_DELAY=-1", "sa", ""));
+        try (Connection connection = instrumentedDataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        }
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount(), is(10_000L));
+        assertThat(snapshot.getMin(), is(1L));
+        assertThat(snapshot.getMax(), is(10_000L));
+        assertThat(snapshot.getMedian(), allOf(greaterThanOrEqualTo(5_000L), lessThanOrEqualTo(5_320L)));
+        assertThat(snapshot.get99thPercentile(), allOf(greaterThanOrEqualTo(9_900L), lessThanOrEqualTo(10_000L)));
+        assertThat(snapshot.getValueAtPercentile(100), is(10_000L));
+    }
+
+    @Test
+    void testHistogramRecordsFromManyThreads() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long offset = t * 1_000L;
+            threads.add(new Thread(() -> {
+                for (long value = 1; value <= 1_000; value++) {
+                    histogram.record(offset + value);
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertThat(histogram.getCount(), is(4_000L));
+        assertThat(snapshot.getCount(), is(4_000L));
+        assertThat(snapshot.getSum(), is(4_000L * 4_001 / 2));
+        assertThat(snapshot.getMin(), is(1L));
+        assertThat(snapshot.getMax(), is(4_000L));
+    }
+
+        @Test
+    void testStatementMetricsAreGroupedBySqlShape() throws SQLException {
+        try (Connection connection = instrumentedDataSource.getConnection()) {
+            PreparedStatement insertStatement = connection.prepareStatement("INSERT INTO items VALUES (?, ?)");
+            for (int i = 1; i <= 5; i++) {
+                insertStatement.setLong(1, i);
+                insertStatement.setString(2, "item " + i);
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+
+            Statement statement = connection.createStatement();
+            for (int i = 1; i <= 3; i++) {
+                ResultSet resultSet = statement.executeQuery("SELECT * FROM items WHERE id <= " + i);
+                while (resultSet.next()) {
+                    // just fetch rows
+                }
+            }
+        }
+
+        JdbcMetrics metrics = instrumentedDataSource.getMetrics();
+        StatementMetrics insertMetrics = metrics.getStatementMetrics("INSERT INTO items VALUES (?, ?)");
+        StatementMetrics selectMetrics = metrics.getStatementMetrics("SELECT * FROM items WHERE id <= ?");
+
+        assertThat(metrics.getStatementMetrics(), hasKey("SELECT * FROM items WHERE id <= ?"));
+        assertThat(metrics.getConnectionAcquireNanos().getCount(), greaterThanOrEqualTo(2L));
+        assertThat(insertMetrics.getExecuteNanos().getCount(), is(1L));
+        assertThat(insertMetrics.getBatchSizes().snapshot().getMax(), is(5L));
+        assertThat(selectMetrics.getExecuteNanos().getCount(), is(3L));
+        assertThat(selectMetrics.getRowsFetched().snapshot().getSum(), is(6L));
+    }
+
+    @Test
+    void testSqlShape() {
+        assertThat(JdbcMetrics.toSqlShape("SELECT *\n  FROM items WHERE name = 'it''s' AND id = 42 AND t1.x = -1.5"),
+                is("SELECT * FROM items WHERE name = ? AND id = ? AND t1.x = ?"));
+    }
+
+    @Test
+    void testSqlShapeIsMemoized() {
+        JdbcMetrics metrics = new JdbcMetrics();
+        String sql = "SELECT * FROM items WHERE id = 42";
+
+        String sqlShape = metrics.getSqlShape(sql);
+
+        assertThat(sqlShape, is("SELECT * FROM items WHERE id = ?"));
+        assertThat(metrics.getSqlShape(sql), sameInstance(sqlShape));
+    }
+
+    @Test
+    void testSlowQueryIsReportedWithParameters() throws SQLException {
+        CapturingSlowQueryLog slowQueryLog = new CapturingSlowQueryLog(Duration.ZERO);
+        InstrumentedDataSource dataSource = new InstrumentedDataSource(
+                JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:instrumented_db;DB_CLOSE_DELAY=-1", "sa", ""), slowQueryLog);
+
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement("UPDATE items SET name = ? WHERE id = ?");
+            statement.setString(1, "renamed");
+            statement.setLong(2, -1L);
+            statement.executeUpdate();
+        }
+
+        SlowQueryEntry entry = slowQueryLog.entries.get(0);
+        assertThat(slowQueryLog.getSlowQueryCount(), is(1L));
+        assertThat(entry.getSql(), is("UPDATE items SET name = ? WHERE id = ?"));
+        assertThat(entry.getParameters(), is(Arrays.asList("renamed", -1L)));
+        assertThat(entry.getRowsAffected(), is(0L));
+        assertThat(entry.getCaller(), is(getClass().getName() + ".testSlowQueryIsReportedWithParameters"));
+    }
+
+    @Test
+    void testFastQueryIsNotReported() throws SQLException {
+        CapturingSlowQueryLog slowQueryLog = new CapturingSlowQueryLog(Duration.ofHours(1));
+        InstrumentedDataSource dataSource = new InstrumentedDataSource(
+                JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:instrumented_db;DB_CLOSE_DELAY=-1", "sa", ""), slowQueryLog);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().executeQuery("SELECT count(*) FROM items").close();
+        }
+
+        assertThat(slowQueryLog.entries, empty());
+    }
+
+    private static class CapturingSlowQueryLog extends SlowQueryLog {
+        private final List<SlowQueryEntry> entries = new ArrayList<>();
+
+        private CapturingSlowQueryLog(Duration threshold) {
+            super(threshold);
+        }
+
+        @Override
+        protected void report(SlowQueryEntry entry) {
+            super.report(entry);
+            entries.add(entry);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PooledDataSourceTest {
+    private PooledDataSource pooledDataSource;
+
+    @AfterEach
+    void closePool() {
+        if (pooledDataSource != null) {
+            pooledDataSource.close();
+        }
+    }
+
+    @Test
+    void testConnectionsAreReusedUnderConcurrentLoad() throws Exception {
+        CountingDataSource countingDataSource = new CountingDataSource("pool_reuse_db");
+        pooledDataSource = JdbcUtil.createPooledDataSource(countingDataSource, PoolConfig.builder().maxSize(4).build());
+        int threads = 16;
+        int queriesPerThread = 200;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(() -> runQueries(queriesPerThread));
+            }
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                assertEquals(queriesPerThread, result.get().intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int openedConnections = countingDataSource.openedConnections.get();
+        assertTrue(openedConnections >= 1 && openedConnections <= 4,
+                String.format("Expected 1..4 physical connections, but %d were opened", openedConnections));
+        assertEquals(openedConnections, pooledDataSource.getIdleConnections());
+    }
+
+    private int runQueries(int count) throws SQLException {
+        int executed = 0;
+        for (int i = 0; i < count; i++) {
+            try (Connection connection = pooledDataSource.getConnection()) {
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT 1");
+                resultSet.next();
+                executed += resultSet.getInt(1);
+            }
+        }
+        return executed;
+    }
+
+    @Test
+    void testAcquireTimeout() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledDataSource(new CountingDataSource("pool_timeout_db"),
+                PoolConfig.builder().maxSize(1).acquireTimeout(Duration.ofMillis(50)).build());
+
+        try (Connection ignored = pooledDataSource.getConnection()) {
+            assertThrows(SQLTimeoutException.class, () -> pooledDataSource.getConnection());
+        }
+        try (Connection connection = pooledDataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+    }
+
+    @Test
+    void testReturnedConnectionCannotBeUsed() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledDataSource(new CountingDataSource("pool_returned_db"));
+
+        Connection connection = pooledDataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::createStatement);
+        assertEquals(1, pooledDataSource.getIdleConnections());
+    }
+
+    @Test
+    void testUncommittedChangesAreRolledBackOnReturn() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledDataSource(new CountingDataSource("pool_rollback_db"),
+                PoolConfig.builder().maxSize(1).build());
+        try (Connection connection = pooledDataSource.getConnection()) {
+            connection.createStatement().execute("CREATE TABLE IF NOT EXISTS pool_test (id INT)");
+            connection.setAutoCommit(false);
+            connection.createStatement().execute("INSERT INTO pool_test VALUES (1)");
+        }
+
+        try (Connection connection = pooledDataSource.getConnection()) {
+            ResultSet resultSet = connection.createStatement().executeQuery("SELECT count(*) FROM pool_test");
+            resultSet.next();
+
+            assertTrue(connection.getAutoCommit());
+            assertEquals(0, resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    void testStatementsAndSettingsAreResetOnReturn() throws SQLException {
+        pooledDataSource = JdbcUtil.createPooledDataSource(new CountingDataSource("pool_reset_db"),
+                PoolConfig.builder().maxSize(1).build());
+        int defaultIsolation;
+        Statement leftOpenStatement;
+        try (Connection connection = pooledDataSource.getConnection()) {
+            defaultIsolation = connection.getTransactionIsolation();
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            leftOpenStatement = connection.createStatement();
+        }
+
+        try (Connection connection = pooledDataSource.getConnection()) {
+            assertTrue(leftOpenStatement.isClosed());
+            assertEquals(defaultIsolation, connection.getTransactionIsolation());
+        }
+    }
+
+    @Test
+    void testBorrowerWaitsWithoutSpinningWhileConnectionIsOpened() throws Exception {
+        CountingDataSource slowDataSource = new SlowDataSource("pool_slow_db", 300);
+        pooledDataSource = JdbcUtil.createPooledDataSource(slowDataSource, PoolConfig.builder()
+                .minSize(1)
+                .maxSize(1)
+                .build());
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long cpuTimeBefore = threadMXBean.getCurrentThreadCpuTime();
+
+        try (Connection connection = pooledDataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+
+        long cpuTimeMillis = TimeUnit.NANOSECONDS.toMillis(threadMXBean.getCurrentThreadCpuTime() - cpuTimeBefore);
+        assertTrue(cpuTimeMillis < 150, String.format("Borrower used %d ms of CPU while waiting", cpuTimeMillis));
+        assertEquals(1, slowDataSource.openedConnections.get());
+    }
+
+    @Test
+    void testIdleConnectionsAreEvicted() throws Exception {
+        CountingDataSource countingDataSource = new CountingDataSource("pool_eviction_db");
+        pooledDataSource = JdbcUtil.createPooledDataSource(countingDataSource, PoolConfig.builder()
+                .idleTimeout(Duration.ofMillis(20))
+                .evictionInterval(Duration.ofMillis(10))
+                .build());
+
+        pooledDataSource.getConnection().close();
+        waitUntil(() -> pooledDataSource.getTotalConnections() == 0);
+
+        assertEquals(0, pooledDataSource.getIdleConnections());
+    }
+
+    @Test
+    void testPoolIsFilledToMinSize() throws Exception {
+        CountingDataSource countingDataSource = new CountingDataSource("pool_min_size_db");
+        pooledDataSource = JdbcUtil.createPooledDataSource(countingDataSource, PoolConfig.builder()
+                .minSize(2)
+                .idleTimeout(Duration.ofMillis(20))
+                .evictionInterval(Duration.ofMillis(10))
+                .build());
+
+        waitUntil(() -> pooledDataSource.getIdleConnections() == 2);
+        Thread.sleep(100);
+
+        assertEquals(2, pooledDataSource.getTotalConnections());
+        assertEquals(2, countingDataSource.openedConnections.get());
+    }
+
+    private void waitUntil(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.call()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition was not met in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class CountingDataSource extends JdbcDataSource {
+        private final AtomicInteger openedConnections = new AtomicInteger();
+
+        private CountingDataSource(String databaseName) {
+            setURL(String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", databaseName));
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            openedConnections.incrementAndGet();
+            return super.getConnection();
+        }
+    }
+
+    private static class SlowDataSource extends CountingDataSource {
+        private final long openDelayMillis;
+
+        private SlowDataSource(String databaseName, long openDelayMillis) {
+            super(databaseName);
+            this.openDelayMillis = openDelayMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                Thread.sleep(openDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.mapping.RowMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RowMapperTest {
+    private static DataSource dataSource;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:row_mapper_db;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, name VARCHAR(255), " +
+                    "event_date DATE, created TIMESTAMP, parent_id BIGINT)");
+            statement.execute("INSERT INTO events VALUES (1, 'first', '2020-01-02', '2020-01-02 10:15:30', NULL)");
+            statement.execute("INSERT INTO events VALUES (2, 'second', NULL, NULL, 1)");
+        }
+    }
+
+    @Test
+    void testMapByResolvedColumnIndices() throws SQLException {
+        RowMapper<List<Object>> rowMapper = RowMapper.of(row -> Arrays.asList(row.getString(0), row.getLong(1),
+                row.getLocalDate(2), row.getLocalDateTime(3), row.getNullableLong(4)),
+                "NAME", "id", "event_date", "created", "parent_id");
+
+        List<List<Object>> rows;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT * FROM events ORDER BY id")) {
+            rows = rowMapper.mapAll(resultSet);
+        }
+
+        assertEquals(Arrays.asList("first", 1L, LocalDate.of(2020, 1, 2),
+                LocalDateTime.of(2020, 1, 2, 10, 15, 30), null), rows.get(0));
+        assertEquals("second", rows.get(1).get(0));
+        assertNull(rows.get(1).get(2));
+        assertNull(rows.get(1).get(3));
+        assertEquals(1L, rows.get(1).get(4));
+    }
+
+    @Test
+    void testColumnLabelsAreCreatedOnce() {
+        RowMapper<String> rowMapper = RowMapper.of(row -> row.getString(0), "name", "id");
+
+        List<String> columnLabels = rowMapper.getColumnLabels();
+
+        assertEquals(List.of("name", "id"), columnLabels);
+        assertSame(columnLabels, rowMapper.getColumnLabels());
+        assertThrows(UnsupportedOperationException.class, () -> columnLabels.set(0, "price"));
+    }
+
+    @Test
+    void testMissingColumnIsReportedOnBind() throws SQLException {
+        RowMapper<String> rowMapper = RowMapper.of(row -> row.getString(0), "description");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, name FROM events")) {
+            SQLException e = assertThrows(SQLException.class, () -> rowMapper.bind(resultSet));
+            assertEquals("Column description is not found in the result set", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.SqlDialect;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SqlDialectTest {
+    private static final List<String> COLUMNS = List.of("name", "price", "id");
+
+    @Test
+    void testDetectH2Dialect() throws SQLException {
+        DataSource dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:dialect_db", "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(SqlDialect.H2, SqlDialect.of(connection));
+        }
+    }
+
+    @Test
+    void testDetectByDatabaseProductName() {
+        assertEquals(SqlDialect.POSTGRESQL, SqlDialect.fromDatabaseProductName("PostgreSQL"));
+        assertEquals(SqlDialect.OTHER, SqlDialect.fromDatabaseProductName("MySQL"));
+    }
+
+    @Test
+    void testSupportsUpsert() {
+        assertTrue(SqlDialect.H2.supportsUpsert());
+        assertTrue(SqlDialect.POSTGRESQL.supportsUpsert());
+        assertFalse(SqlDialect.OTHER.supportsUpsert());
+    }
+
+    @Test
+    void testUpsertSql() {
+        assertEquals("MERGE INTO items(name, price, id) KEY(id) VALUES (?, ?, ?)",
+                SqlDialect.H2.createUpsertSql("items", "id", COLUMNS));
+        assertEquals("INSERT INTO items(name, price, id) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, price = EXCLUDED.price",
+                SqlDialect.POSTGRESQL.createUpsertSql("items", "id", COLUMNS));
+    }
+
+    @Test
+    void testUpsertSqlWithValueExpressions() {
+        List<String> columns = List.of("name", "id", "updated_time");
+        List<String> values = List.of("?", "?", "now()");
+
+        assertEquals("MERGE INTO items(name, id, updated_time) KEY(id) VALUES (?, ?, now())",
+                SqlDialect.H2.createUpsertSql("items", "id", columns, values));
+        assertEquals("INSERT INTO items(name, id, updated_time) VALUES (?, ?, now()) " +
+                        "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, updated_time = EXCLUDED.updated_time",
+                SqlDialect.POSTGRESQL.createUpsertSql("items", "id", columns, values));
+    }
+}
@@ -0,0 +1,115 @@
+package com.bobocode;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
+import org.h2.jdbc.JdbcPreparedStatement;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatementCacheTest {
+    private static final String SELECT_ONE_SQL = "SELECT ?";
+    private static PooledDataSource pooledDataSource;
+
+    @BeforeAll
+    static void init() {
+        DataSource h2DataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:statement_cache_db", "sa", "");
+        pooledDataSource = JdbcUtil.createPooledDataSource(h2DataSource, PoolConfig.builder()
+                .maxSize(1)
+                .statementCacheSize(2)
+                .build());
+    }
+
+    @AfterAll
+    static void close() {
+        pooledDataSource.close();
+    }
+
+    @Test
+    void testStatementIsReusedBetweenBorrowings() throws SQLException {
+        JdbcPreparedStatement firstStatement = executeSelect(SELECT_ONE_SQL);
+        JdbcPreparedStatement secondStatement = executeSelect(SELECT_ONE_SQL);
+
+        assertSame(firstStatement, secondStatement);
+        assertFalse(firstStatement.isClosed());
+    }
+
+    private JdbcPreparedStatement executeSelect(String sql) throws SQLException {
+        try (Connection connection = pooledDataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setInt(1, 1);
+            ResultSet resultSet = statement.executeQuery();
+            resultSet.next();
+            assertEquals(1, resultSet.getInt(1));
+            JdbcPreparedStatement physicalStatement = statement.unwrap(JdbcPreparedStatement.class);
+            statement.close();
+            return physicalStatement;
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+        JdbcPreparedStatement evictedStatement = executeSelect("SELECT ? AS a");
+        executeSelect("SELECT ? AS b");
+        executeSelect("SELECT ? AS c");
+
+        assertTrue(evictedStatement.isClosed());
+        assertNotSame(evictedStatement, executeSelect("SELECT ? AS a"));
+    }
+
+    @Test
+    void testStatementInUseIsNotSharedAndClosedStatementIsReset() throws SQLException {
+        try (Connection connection = pooledDataSource.getConnection()) {
+            PreparedStatement firstStatement = connection.prepareStatement(SELECT_ONE_SQL);
+            PreparedStatement secondStatement = connection.prepareStatement(SELECT_ONE_SQL);
+            firstStatement.setInt(1, 1);
+            ResultSet resultSet = firstStatement.executeQuery();
+
+            assertNotSame(firstStatement.unwrap(JdbcPreparedStatement.class),
+                    secondStatement.unwrap(JdbcPreparedStatement.class));
+
+            firstStatement.close();
+            secondStatement.close();
+
+            assertTrue(firstStatement.isClosed());
+            assertTrue(resultSet.isClosed());
+            assertThrows(SQLException.class, firstStatement::executeQuery);
+        }
+    }
+
+    @Test
+    void testStatementSettingsAreRestoredOnRelease() throws SQLException {
+        try (Connection connection = pooledDataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ONE_SQL);
+            int defaultFetchSize = statement.getFetchSize();
+            int defaultQueryTimeout = statement.getQueryTimeout();
+            statement.setFetchSize(defaultFetchSize + 7);
+            statement.setMaxRows(3);
+            statement.setQueryTimeout(defaultQueryTimeout + 5);
+            JdbcPreparedStatement physicalStatement = statement.unwrap(JdbcPreparedStatement.class);
+            statement.close();
+
+            PreparedStatement reusedStatement = connection.prepareStatement(SELECT_ONE_SQL);
+
+            assertSame(physicalStatement, reusedStatement.unwrap(JdbcPreparedStatement.class));
+            assertEquals(defaultFetchSize, reusedStatement.getFetchSize());
+            assertEquals(0, reusedStatement.getMaxRows());
+            assertEquals(defaultQueryTimeout, reusedStatement.getQueryTimeout());
+            reusedStatement.close();
+        }
+    }
+}
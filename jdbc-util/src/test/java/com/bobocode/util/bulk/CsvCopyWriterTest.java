@@ -0,0 +1,146 @@
+package com.bobocode.util.bulk;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CsvCopyWriter} is package-private, so this test lives in its package and talks to a fake {@link CopyIn}
+ * instead of a PostgreSQL server
+ */
+public class CsvCopyWriterTest {
+
+    @Test
+    void testValuesAreEncodedAsCsv() throws SQLException {
+        FakeCopyIn copyIn = new FakeCopyIn();
+        CsvCopyWriter writer = new CsvCopyWriter(copyIn, 1024);
+
+        writer.writeLong(1L);
+        writer.writeString("say \"hi\", then\nleave");
+        writer.writeDecimal(new BigDecimal("1E+2"));
+        writer.writeDate(LocalDate.of(2030, 1, 2));
+        writer.writeTimestamp(LocalDateTime.of(2030, 1, 2, 3, 4, 5));
+        writer.endRow();
+        writer.flush();
+
+        assertEquals("1,\"say \"\"hi\"\", then\nleave\",100,2030-01-02,2030-01-02T03:04:05\n", copyIn.getContent());
+    }
+
+    @Test
+    void testNullIsUnquotedAndEmptyStringIsQuoted() throws SQLException {
+        FakeCopyIn copyIn = new FakeCopyIn();
+        CsvCopyWriter writer = new CsvCopyWriter(copyIn, 1024);
+
+        writer.writeString(null);
+        writer.writeString("");
+        writer.writeLong(null);
+        writer.writeDecimal(null);
+        writer.endRow();
+        writer.flush();
+
+        assertEquals(",\"\",,\n", copyIn.getContent());
+    }
+
+    @Test
+    void testRowsAreSentWhenBufferIsFull() throws SQLException {
+        FakeCopyIn copyIn = new FakeCopyIn();
+        CsvCopyWriter writer = new CsvCopyWriter(copyIn, 16);
+
+        writer.writeString("first");
+        writer.endRow();
+        assertEquals(0, copyIn.getWriteCount());
+
+        writer.writeString("second row");
+        writer.endRow();
+        assertEquals(1, copyIn.getWriteCount());
+        assertEquals("\"first\"\n\"second row\"\n", copyIn.getContent());
+
+        writer.writeString("last");
+        writer.endRow();
+        assertEquals(1, copyIn.getWriteCount());
+        writer.flush();
+        assertEquals("\"first\"\n\"second row\"\n\"last\"\n", copyIn.getContent());
+    }
+
+    @Test
+    void testRowLongerThanBufferIsSentInChunks() throws SQLException {
+        FakeCopyIn copyIn = new FakeCopyIn();
+        CsvCopyWriter writer = new CsvCopyWriter(copyIn, 16);
+        // 3 bytes per character in UTF-8, so the row does not fit into the byte buffer at once
+        String longValue = "\u20ac".repeat(100);
+
+        writer.writeString(longValue);
+        writer.endRow();
+
+        assertTrue(copyIn.getWriteCount() > 1);
+        assertEquals("\"" + longValue + "\"\n", copyIn.getContent());
+    }
+
+    private static class FakeCopyIn implements CopyIn {
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private final List<Integer> writeSizes = new ArrayList<>();
+
+        @Override
+        public void writeToCopy(byte[] buf, int off, int siz) {
+            content.write(buf, off, siz);
+            writeSizes.add(siz);
+        }
+
+        @Override
+        public void flushCopy() {
+        }
+
+        @Override
+        public long endCopy() {
+            return 0;
+        }
+
+        @Override
+        public int getFieldCount() {
+            return 0;
+        }
+
+        @Override
+        public int getFormat() {
+            return 0;
+        }
+
+        @Override
+        public int getFieldFormat(int field) {
+            return 0;
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+        @Override
+        public void cancelCopy() {
+        }
+
+        @Override
+        public long getHandledRowCount() {
+            return 0;
+        }
+
+        private String getContent() {
+            return new String(content.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private int getWriteCount() {
+            return writeSizes.size();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/*
+  Test script; semicolons in comments; /* nested; */ do not split statements
+*/
+CREATE TABLE notes (id BIGINT, text VARCHAR(255)); -- trailing comment; with semicolon
+INSERT INTO notes VALUES (1, 'semicolon; inside');
+INSERT INTO notes VALUES (2, 'it''s quoted; too');
+;
+CREATE FUNCTION touch() RETURNS trigger AS $$
+BEGIN
+  NEW.text := 'touched;';
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+SELECT "odd;name" FROM notes WHERE text = $tag$a;b$tag$
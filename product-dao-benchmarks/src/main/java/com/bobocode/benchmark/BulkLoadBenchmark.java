@@ -0,0 +1,101 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.dao.ProductBulkLoadMapping;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.bulk.BulkLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link BulkLoadBenchmark} compares loading {@link BulkLoadState#rowCount} products with
+ * {@link ProductDao#saveAll(java.util.Collection)} (batched {@code INSERT}) and with {@link BulkLoader} ({@code COPY} on
+ * PostgreSQL, batched {@code INSERT} on H2). The table is truncated before every invocation, so the score is the time
+ * of loading all rows into an empty table, and {@code rowCount / score} is the throughput.
+ * <p>
+ * The default database is H2. Run with {@code -p database=POSTGRESQL} to load into the database configured by
+ * {@link JdbcUtil#createDefaultPostgresDataSource()}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class BulkLoadState {
+        @Param({"H2"})
+        public String database;
+
+        @Param({"100000"})
+        public int rowCount;
+
+        private DataSource dataSource;
+        private ProductDao productDao;
+        private BulkLoader bulkLoader;
+        private List<Product> products;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            dataSource = database.equals("POSTGRESQL") ? JdbcUtil.createDefaultPostgresDataSource()
+                    : JdbcUtil.createDefaultInMemoryH2DataSource();
+            ProductDaoState.recreateProductsTable(dataSource);
+            productDao = new ProductDaoImpl(dataSource);
+            bulkLoader = new BulkLoader(dataSource);
+        }
+
+        @Setup(Level.Invocation)
+        public void truncateTable() throws SQLException {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("TRUNCATE TABLE products");
+            }
+            products = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                products.add(ProductDaoState.generateProduct());
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Product> saveAll(BulkLoadState state) {
+        state.productDao.saveAll(state.products);
+        return state.products;
+    }
+
+    @Benchmark
+    public long bulkLoad(BulkLoadState state) throws SQLException {
+        return state.bulkLoader.load(ProductBulkLoadMapping.PRODUCTS, state.products);
+    }
+
+    /**
+     * Generates products while they are loaded, so memory usage does not depend on the number of rows
+     */
+    @Benchmark
+    public long bulkLoadGenerated(BulkLoadState state) throws SQLException {
+        return state.bulkLoader.load(ProductBulkLoadMapping.PRODUCTS,
+                Stream.generate(ProductDaoState::generateProduct).limit(state.rowCount));
+    }
+}
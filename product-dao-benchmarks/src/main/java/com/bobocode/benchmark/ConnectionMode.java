@@ -0,0 +1,35 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.pool.PoolConfig;
+
+import javax.sql.DataSource;
+
+/**
+ * {@link ConnectionMode} defines how benchmarks get connections to the database
+ */
+public enum ConnectionMode {
+    /**
+     * Each DAO call opens a new physical connection
+     */
+    DIRECT {
+        @Override
+        DataSource createDataSource(DataSource targetDataSource) {
+            return targetDataSource;
+        }
+    },
+    /**
+     * DAO calls borrow connections from a pool with prepared statements cache
+     */
+    POOLED {
+        @Override
+        DataSource createDataSource(DataSource targetDataSource) {
+            return JdbcUtil.createPooledDataSource(targetDataSource, PoolConfig.builder()
+                    .maxSize(Runtime.getRuntime().availableProcessors() * 2)
+                    .statementCacheSize(32)
+                    .build());
+        }
+    };
+
+    abstract DataSource createDataSource(DataSource targetDataSource);
+}
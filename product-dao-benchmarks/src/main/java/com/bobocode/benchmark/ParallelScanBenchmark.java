@@ -0,0 +1,77 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.dao.ProductBulkLoadMapping;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.bulk.BulkLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * {@link ParallelScanBenchmark} compares reading the whole {@code products} table with one cursor using
+ * {@link ProductDao#streamAll()} and with {@link ProductDao#parallelScan(int, java.util.function.Consumer)} split
+ * into {@code partitions} id ranges. Every product is passed to a cheap thread-safe action, so the score is the
+ * reading cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelScanBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ScanState {
+        @Param({"100000"})
+        public int tableSize;
+
+        @Param({"1", "4"})
+        public int partitions;
+
+        private ProductDao productDao;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+                    "jdbc:h2:mem:parallel_scan_db;DB_CLOSE_DELAY=-1", "sa", "");
+            ProductDaoState.recreateProductsTable(dataSource);
+            new BulkLoader(dataSource).load(ProductBulkLoadMapping.PRODUCTS,
+                    Stream.generate(ProductDaoState::generateProduct).limit(tableSize));
+            productDao = new ProductDaoImpl(dataSource);
+        }
+    }
+
+    @Benchmark
+    public long streamAll(ScanState state) {
+        LongAdder nameLength = new LongAdder();
+        try (Stream<Product> products = state.productDao.streamAll()) {
+            products.forEach(product -> nameLength.add(product.getName().length()));
+        }
+        return nameLength.sum();
+    }
+
+    @Benchmark
+    public long parallelScan(ScanState state) {
+        LongAdder nameLength = new LongAdder();
+        state.productDao.parallelScan(state.partitions, product -> nameLength.add(product.getName().length()));
+        return nameLength.sum();
+    }
+}
@@ -0,0 +1,102 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductDaoBenchmark} measures throughput of {@link com.bobocode.dao.ProductDaoImpl} operations. Run it with a
+ * different number of threads (e.g. {@code -t 1} and {@code -t 8}) to see how operations scale.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductDaoBenchmark {
+    private static final int BULK_SIZE = 100;
+
+    @Benchmark
+    public Product save(ProductDaoState state) {
+        Product product = ProductDaoState.generateProduct();
+        state.productDao.save(product);
+        return product;
+    }
+
+    /**
+     * Buffers products and stores them in batches in the background. The buffer is flushed by callers when it's full,
+     * so the score is bounded by the batch insert throughput.
+     */
+    @Benchmark
+    public Product saveWriteBehind(ProductDaoState state) {
+        Product product = ProductDaoState.generateProduct();
+        state.writeBehindProductDao.save(product);
+        return product;
+    }
+
+    /**
+     * Stores products one by one, so the score is comparable with {@link #saveAll(ProductDaoState)}
+     */
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Product> saveOneByOne(ProductDaoState state) {
+        List<Product> products = generateProducts();
+        products.forEach(state.productDao::save);
+        return products;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Product> saveAll(ProductDaoState state) {
+        List<Product> products = generateProducts();
+        state.productDao.saveAll(products);
+        return products;
+    }
+
+    private static List<Product> generateProducts() {
+        List<Product> products = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            products.add(ProductDaoState.generateProduct());
+        }
+        return products;
+    }
+
+    @Benchmark
+    public Product findOne(ProductDaoState state) {
+        return state.productDao.findOne(state.randomSeededId());
+    }
+
+    @Benchmark
+    public List<Product> findAll(ProductDaoState state) {
+        return state.productDao.findAll();
+    }
+
+    @Benchmark
+    public Product update(ProductDaoState state) {
+        Product product = ProductDaoState.generateProduct();
+        product.setId(state.randomSeededId());
+        state.productDao.update(product);
+        return product;
+    }
+
+    /**
+     * Removing requires an existing row, so each invocation stores a product first and then removes it
+     */
+    @Benchmark
+    public Product saveAndRemove(ProductDaoState state) {
+        Product product = ProductDaoState.generateProduct();
+        state.productDao.save(product);
+        state.productDao.remove(product);
+        return product;
+    }
+}
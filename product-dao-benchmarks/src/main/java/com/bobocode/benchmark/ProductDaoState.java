@@ -0,0 +1,106 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.ProductTestDatabase;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.WriteBehindProductDao;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link ProductDaoState} creates a fresh {@code products} table in the default in-memory H2 database for each trial,
+ * and fills it with {@link #tableSize} products
+ */
+@State(Scope.Benchmark)
+public class ProductDaoState {
+    @Param({"100", "10000"})
+    public int tableSize;
+
+    @Param({"DIRECT", "POOLED"})
+    public ConnectionMode connectionMode;
+
+    DataSource dataSource;
+    ProductDao productDao;
+    WriteBehindProductDao writeBehindProductDao;
+    private long minId;
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        DataSource h2DataSource = JdbcUtil.createDefaultInMemoryH2DataSource();
+        recreateProductsTable(h2DataSource);
+        seedProducts(h2DataSource, tableSize);
+        dataSource = connectionMode.createDataSource(h2DataSource);
+        productDao = new ProductDaoImpl(dataSource);
+        writeBehindProductDao = new WriteBehindProductDao(productDao);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        writeBehindProductDao.close();
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    static void recreateProductsTable(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS products");
+        }
+        ProductTestDatabase.createProductsTable(dataSource);
+    }
+
+    private void seedProducts(DataSource dataSource, int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insertStatement = connection.prepareStatement(
+                     "INSERT INTO products(name, producer, price, expiration_date) VALUES (?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < count; i++) {
+                Product product = generateProduct();
+                insertStatement.setString(1, product.getName());
+                insertStatement.setString(2, product.getProducer());
+                insertStatement.setBigDecimal(3, product.getPrice());
+                insertStatement.setDate(4, Date.valueOf(product.getExpirationDate()));
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+            connection.commit();
+        }
+        minId = 1;
+        maxId = count;
+    }
+
+    static Product generateProduct() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Product.builder()
+                .name("product-" + random.nextInt(1_000_000))
+                .producer("producer-" + random.nextInt(100))
+                .price(BigDecimal.valueOf(random.nextInt(10, 10_000), 2))
+                .expirationDate(LocalDate.now().plusDays(random.nextInt(1, 1000)))
+                .build();
+    }
+
+    /**
+     * @return id of a random product that was stored during the setup
+     */
+    long randomSeededId() {
+        return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+    }
+}
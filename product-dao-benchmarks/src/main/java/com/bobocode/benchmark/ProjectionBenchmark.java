@@ -0,0 +1,89 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.dao.ProductBulkLoadMapping;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.ProductProjections;
+import com.bobocode.model.Product;
+import com.bobocode.model.ProductSummary;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.bulk.BulkLoader;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link ProjectionBenchmark} compares scanning the whole {@code products} table with {@link ProductDao#findAll()} and
+ * with {@link ProductDao#findAllAs(com.bobocode.util.mapping.RowMapper)} that selects only {@code id}, {@code name}
+ * and {@code price}. With {@code transport=TCP} the database runs as an H2 TCP server, so every row is serialized and
+ * sent over a socket, like it is with a real database server. Run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ProjectionState {
+        @Param({"IN_MEMORY", "TCP"})
+        public String transport;
+
+        @Param({"10000"})
+        public int tableSize;
+
+        private Server tcpServer;
+        private ProductDao productDao;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            DataSource dataSource;
+            if (transport.equals("TCP")) {
+                tcpServer = Server.createTcpServer("-tcpPort", "0").start();
+                dataSource = JdbcUtil.createInMemoryH2DataSource(String.format(
+                        "jdbc:h2:tcp://localhost:%d/mem:projection_db;DB_CLOSE_DELAY=-1", tcpServer.getPort()), "sa", "");
+            } else {
+                dataSource = JdbcUtil.createInMemoryH2DataSource("jdbc:h2:mem:projection_db;DB_CLOSE_DELAY=-1", "sa", "");
+            }
+            ProductDaoState.recreateProductsTable(dataSource);
+            new BulkLoader(dataSource).load(ProductBulkLoadMapping.PRODUCTS,
+                    Stream.generate(ProductDaoState::generateProduct).limit(tableSize));
+            productDao = new ProductDaoImpl(dataSource);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (tcpServer != null) {
+                tcpServer.stop();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Product> findAll(ProjectionState state) {
+        return state.productDao.findAll();
+    }
+
+    @Benchmark
+    public List<ProductSummary> findAllAsSummary(ProjectionState state) {
+        return state.productDao.findAllAs(ProductProjections.SUMMARY);
+    }
+}
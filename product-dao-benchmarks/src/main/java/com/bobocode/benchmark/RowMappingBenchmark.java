@@ -0,0 +1,78 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.model.Product;
+import com.bobocode.util.mapping.BoundRowMapper;
+import com.bobocode.util.mapping.RowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RowMappingBenchmark} compares mapping a full {@code products} scan by column label with mapping by column
+ * indices resolved once per result set using {@link RowMapper}. Both benchmarks run the same query, so the difference
+ * is the mapping cost. Divide the score by {@code tableSize} to get the cost per row, and run with {@code -prof gc} to
+ * compare allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+    private static final String SELECT_ALL_SQL = "SELECT * FROM products";
+    private static final RowMapper<Product> ROW_MAPPER = RowMapper.of(row -> Product.builder()
+                    .id(row.getLong(0))
+                    .name(row.getString(1))
+                    .producer(row.getString(2))
+                    .price(row.getBigDecimal(3))
+                    .expirationDate(row.getLocalDate(4))
+                    .creationTime(row.getLocalDateTime(5))
+                    .build(),
+            "id", "name", "producer", "price", "expiration_date", "creation_time");
+
+    @Benchmark
+    public List<Product> mapByLabel(ProductDaoState state) throws SQLException {
+        try (Connection connection = state.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ALL_SQL)) {
+            List<Product> products = new ArrayList<>();
+            while (resultSet.next()) {
+                products.add(Product.builder()
+                        .id(resultSet.getLong("id"))
+                        .name(resultSet.getString("name"))
+                        .producer(resultSet.getString("producer"))
+                        .price(resultSet.getBigDecimal("price"))
+                        .expirationDate(resultSet.getDate("expiration_date").toLocalDate())
+                        .creationTime(resultSet.getTimestamp("creation_time").toLocalDateTime())
+                        .build());
+            }
+            return products;
+        }
+    }
+
+    @Benchmark
+    public List<Product> mapByIndex(ProductDaoState state) throws SQLException {
+        try (Connection connection = state.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ALL_SQL)) {
+            BoundRowMapper<Product> rowMapper = ROW_MAPPER.bind(resultSet);
+            List<Product> products = new ArrayList<>();
+            while (resultSet.next()) {
+                products.add(rowMapper.mapRow());
+            }
+            return products;
+        }
+    }
+}
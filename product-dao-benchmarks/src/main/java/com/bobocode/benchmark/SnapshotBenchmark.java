@@ -0,0 +1,92 @@
+package com.bobocode.benchmark;
+
+import com.bobocode.analytics.ProductSnapshot;
+import com.bobocode.analytics.ProductSnapshotLoader;
+import com.bobocode.dao.ProductBulkLoadMapping;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.model.Product;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.bulk.BulkLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link SnapshotBenchmark} compares price aggregates over a {@code List<Product>} loaded by
+ * {@link ProductDaoImpl#findAll()} with the same aggregates over a columnar {@link ProductSnapshot}. Both copies are
+ * loaded once per trial, so the score is the in-memory scan cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(10);
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(50);
+
+    @State(Scope.Benchmark)
+    public static class SnapshotState {
+        @Param({"100000"})
+        public int tableSize;
+
+        private List<Product> products;
+        private ProductSnapshot snapshot;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+                    "jdbc:h2:mem:snapshot_db;DB_CLOSE_DELAY=-1", "sa", "");
+            ProductDaoState.recreateProductsTable(dataSource);
+            new BulkLoader(dataSource).load(ProductBulkLoadMapping.PRODUCTS,
+                    Stream.generate(ProductDaoState::generateProduct).limit(tableSize));
+            products = new ProductDaoImpl(dataSource).findAll();
+            snapshot = new ProductSnapshotLoader(dataSource).load();
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalPriceOfList(SnapshotState state) {
+        return state.products.stream()
+                .map(Product::getPrice)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal totalPriceOfSnapshot(SnapshotState state) {
+        return state.snapshot.getTotalPrice();
+    }
+
+    @Benchmark
+    public BigDecimal filteredTotalPriceOfList(SnapshotState state) {
+        return state.products.stream()
+                .map(Product::getPrice)
+                .filter(price -> price != null && price.compareTo(MIN_PRICE) >= 0 && price.compareTo(MAX_PRICE) <= 0)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal filteredTotalPriceOfSnapshot(SnapshotState state) {
+        BitSet rows = state.snapshot.filterByPrice(MIN_PRICE, MAX_PRICE);
+        return state.snapshot.getTotalPrice(rows);
+    }
+}
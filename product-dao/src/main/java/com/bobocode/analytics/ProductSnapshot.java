@@ -0,0 +1,355 @@
+package com.bobocode.analytics;
+
+import com.bobocode.model.Product;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link ProductSnapshot} is an immutable columnar copy of the {@code products} table for analytics. Every column is
+ * stored in a primitive array indexed by row:
+ * <ul>
+ * <li>prices are unscaled longs with {@link #PRICE_SCALE} decimal digits, and {@code 0} for products without price,
+ * which are marked in a separate bit set</li>
+ * <li>expiration dates are epoch days</li>
+ * <li>creation and update times are epoch millis of the local date-time at UTC</li>
+ * <li>producers and names are dictionary codes, so every distinct string is stored once</li>
+ * </ul>
+ * Aggregates are plain loops over primitive arrays that JIT can unroll and vectorize, and filters compare primitives
+ * without decoding values. Filters return a {@link BitSet} of matching rows, which can be combined with {@link BitSet#and(BitSet)} and passed
+ * to aggregates. Sums are accumulated in {@code long} and switch to {@link BigInteger} if the total overflows, so
+ * they are always exact.
+ * <p>
+ * Use {@link ProductSnapshotLoader} to load a snapshot.
+ */
+public final class ProductSnapshot {
+    public static final int PRICE_SCALE = 4;
+    private final int size;
+    private final long[] ids;
+    private final long[] prices;
+    private final BitSet nullPrices;
+    private final int[] expirationEpochDays;
+    private final long[] creationEpochMillis;
+    private final long[] updatedEpochMillis;
+    private final int[] producerCodes;
+    private final String[] producers;
+    private final Map<String, Integer> producerDictionary;
+    private final int[] nameCodes;
+    private final String[] names;
+
+    private ProductSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.prices = builder.prices;
+        this.nullPrices = builder.nullPrices;
+        this.expirationEpochDays = builder.expirationEpochDays;
+        this.creationEpochMillis = builder.creationEpochMillis;
+        this.updatedEpochMillis = builder.updatedEpochMillis;
+        this.producerCodes = builder.producerCodes;
+        this.producers = builder.producers.keySet().toArray(new String[0]);
+        this.producerDictionary = builder.producers;
+        this.nameCodes = builder.nameCodes;
+        this.names = builder.names.keySet().toArray(new String[0]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[checkRow(row)];
+    }
+
+    public String getName(int row) {
+        return names[nameCodes[checkRow(row)]];
+    }
+
+    public String getProducer(int row) {
+        return producers[producerCodes[checkRow(row)]];
+    }
+
+    public BigDecimal getPrice(int row) {
+        return nullPrices.get(checkRow(row)) ? null : BigDecimal.valueOf(prices[row], PRICE_SCALE);
+    }
+
+    public LocalDate getExpirationDate(int row) {
+        return LocalDate.ofEpochDay(expirationEpochDays[checkRow(row)]);
+    }
+
+    public LocalDateTime getCreationTime(int row) {
+        return toLocalDateTime(creationEpochMillis[checkRow(row)]);
+    }
+
+    public LocalDateTime getUpdatedTime(int row) {
+        return toLocalDateTime(updatedEpochMillis[checkRow(row)]);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    public Product getProduct(int row) {
+        return Product.builder()
+                .id(getId(row))
+                .name(getName(row))
+                .producer(getProducer(row))
+                .price(getPrice(row))
+                .expirationDate(getExpirationDate(row))
+                .creationTime(getCreationTime(row))
+                .updatedTime(getUpdatedTime(row))
+                .build();
+    }
+
+    private int checkRow(int row) {
+        return Objects.checkIndex(row, size);
+    }
+
+    /**
+     * @return number of distinct producers
+     */
+    public int getProducerCount() {
+        return producers.length;
+    }
+
+    /**
+     * @return number of distinct names
+     */
+    public int getNameCount() {
+        return names.length;
+    }
+
+    /**
+     * Returns rows of a given producer. The producer is looked up in the dictionary once, so the scan compares ints.
+     *
+     * @param producer producer name
+     * @return matching rows
+     */
+    public BitSet filterByProducer(String producer) {
+        BitSet rows = new BitSet(size);
+        Integer code = producerDictionary.get(producer);
+        if (code == null) {
+            return rows;
+        }
+        int producerCode = code;
+        for (int row = 0; row < size; row++) {
+            if (producerCodes[row] == producerCode) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns rows with price in a given range. Products without price do not match.
+     *
+     * @param minPrice min price, inclusive
+     * @param maxPrice max price, inclusive
+     * @return matching rows
+     */
+    public BitSet filterByPrice(BigDecimal minPrice, BigDecimal maxPrice) {
+        long min = minPrice.setScale(PRICE_SCALE, RoundingMode.CEILING).unscaledValue().longValueExact();
+        long max = maxPrice.setScale(PRICE_SCALE, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (prices[row] >= min && prices[row] <= max) {
+                rows.set(row);
+            }
+        }
+        rows.andNot(nullPrices);
+        return rows;
+    }
+
+    /**
+     * Returns rows with expiration date in a given window
+     *
+     * @param from   the first day of the window, inclusive
+     * @param before the day after the window, exclusive
+     * @return matching rows
+     */
+    public BitSet filterByExpirationDate(LocalDate from, LocalDate before) {
+        long fromDay = from.toEpochDay();
+        long beforeDay = before.toEpochDay();
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (expirationEpochDays[row] >= fromDay && expirationEpochDays[row] < beforeDay) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return total price of all products, without products that have no price
+     */
+    public BigDecimal getTotalPrice() {
+        try {
+            long total = 0;
+            for (int row = 0; row < size; row++) {
+                total = Math.addExact(total, prices[row]);
+            }
+            return BigDecimal.valueOf(total, PRICE_SCALE);
+        } catch (ArithmeticException overflow) {
+            BigInteger total = BigInteger.ZERO;
+            for (int row = 0; row < size; row++) {
+                total = total.add(BigInteger.valueOf(prices[row]));
+            }
+            return new BigDecimal(total, PRICE_SCALE);
+        }
+    }
+
+    /**
+     * @param rows rows returned by filters
+     * @return total price of given rows, without products that have no price
+     */
+    public BigDecimal getTotalPrice(BitSet rows) {
+        try {
+            long total = 0;
+            for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+                total = Math.addExact(total, prices[row]);
+            }
+            return BigDecimal.valueOf(total, PRICE_SCALE);
+        } catch (ArithmeticException overflow) {
+            BigInteger total = BigInteger.ZERO;
+            for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+                total = total.add(BigInteger.valueOf(prices[row]));
+            }
+            return new BigDecimal(total, PRICE_SCALE);
+        }
+    }
+
+    /**
+     * @return average price of products that have price, or {@code null} if there are no such products
+     */
+    public BigDecimal getAveragePrice() {
+        long pricedCount = size - nullPrices.cardinality();
+        return pricedCount == 0 ? null
+                : getTotalPrice().divide(BigDecimal.valueOf(pricedCount), PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @return number of products by producer, in the order producers were loaded
+     */
+    public Map<String, Long> countByProducer() {
+        long[] counts = new long[producers.length];
+        for (int row = 0; row < size; row++) {
+            counts[producerCodes[row]]++;
+        }
+        Map<String, Long> countByProducer = new LinkedHashMap<>();
+        for (int code = 0; code < producers.length; code++) {
+            countByProducer.put(producers[code], counts[code]);
+        }
+        return countByProducer;
+    }
+
+    /**
+     * @return total price by producer, in the order producers were loaded
+     */
+    public Map<String, BigDecimal> totalPriceByProducer() {
+        BigDecimal[] totals;
+        try {
+            long[] longTotals = new long[producers.length];
+            for (int row = 0; row < size; row++) {
+                longTotals[producerCodes[row]] = Math.addExact(longTotals[producerCodes[row]], prices[row]);
+            }
+            totals = new BigDecimal[producers.length];
+            for (int code = 0; code < producers.length; code++) {
+                totals[code] = BigDecimal.valueOf(longTotals[code], PRICE_SCALE);
+            }
+        } catch (ArithmeticException overflow) {
+            BigInteger[] bigTotals = new BigInteger[producers.length];
+            Arrays.fill(bigTotals, BigInteger.ZERO);
+            for (int row = 0; row < size; row++) {
+                bigTotals[producerCodes[row]] = bigTotals[producerCodes[row]].add(BigInteger.valueOf(prices[row]));
+            }
+            totals = new BigDecimal[producers.length];
+            for (int code = 0; code < producers.length; code++) {
+                totals[code] = new BigDecimal(bigTotals[code], PRICE_SCALE);
+            }
+        }
+        Map<String, BigDecimal> totalByProducer = new LinkedHashMap<>();
+        for (int code = 0; code < producers.length; code++) {
+            totalByProducer.put(producers[code], totals[code]);
+        }
+        return totalByProducer;
+    }
+
+    /**
+     * Appends rows to growing column arrays, and builds producer and name dictionaries
+     */
+    static class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+        private int size;
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private long[] prices = new long[INITIAL_CAPACITY];
+        private final BitSet nullPrices = new BitSet();
+        private int[] expirationEpochDays = new int[INITIAL_CAPACITY];
+        private long[] creationEpochMillis = new long[INITIAL_CAPACITY];
+        private long[] updatedEpochMillis = new long[INITIAL_CAPACITY];
+        private int[] producerCodes = new int[INITIAL_CAPACITY];
+        private final Map<String, Integer> producers = new LinkedHashMap<>();
+        private int[] nameCodes = new int[INITIAL_CAPACITY];
+        private final Map<String, Integer> names = new LinkedHashMap<>();
+
+        void add(long id, String name, String producer, BigDecimal price, LocalDate expirationDate,
+                 LocalDateTime creationTime, LocalDateTime updatedTime) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            nameCodes[size] = encode(name, names);
+            producerCodes[size] = encode(producer, producers);
+            if (price == null) {
+                nullPrices.set(size);
+            } else {
+                prices[size] = price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            }
+            expirationEpochDays[size] = Math.toIntExact(expirationDate.toEpochDay());
+            creationEpochMillis[size] = toEpochMilli(creationTime);
+            updatedEpochMillis[size] = toEpochMilli(updatedTime);
+            size++;
+        }
+
+        private static long toEpochMilli(LocalDateTime dateTime) {
+            return dateTime.toEpochSecond(ZoneOffset.UTC) * 1000 + dateTime.getNano() / 1_000_000;
+        }
+
+        private static int encode(String value, Map<String, Integer> dictionary) {
+            return dictionary.computeIfAbsent(value, key -> dictionary.size());
+        }
+
+        private void grow() {
+            resize(ids.length * 2);
+        }
+
+        /**
+         * Trims the column arrays to the number of rows and hands them to the snapshot without copying, so the
+         * builder must not be used afterwards
+         */
+        ProductSnapshot build() {
+            if (ids.length != size) {
+                resize(size);
+            }
+            return new ProductSnapshot(this);
+        }
+
+        private void resize(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            expirationEpochDays = Arrays.copyOf(expirationEpochDays, capacity);
+            creationEpochMillis = Arrays.copyOf(creationEpochMillis, capacity);
+            updatedEpochMillis = Arrays.copyOf(updatedEpochMillis, capacity);
+            producerCodes = Arrays.copyOf(producerCodes, capacity);
+            nameCodes = Arrays.copyOf(nameCodes, capacity);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.bobocode.analytics;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.mapping.BoundRowMapper;
+import com.bobocode.util.mapping.ResultSetRow;
+import com.bobocode.util.mapping.RowMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * {@link ProductSnapshotLoader} reads the {@code products} table with a fetch-size cursor and appends rows straight
+ * to a {@link ProductSnapshot}, so no {@link com.bobocode.model.Product} instances are created while loading. Columns
+ * are read by index through {@link ResultSetRow}, so dates and times come from the driver as {@code java.time} values
+ * without {@code java.sql} temporaries, and are stored as epoch days and millis.
+ */
+public class ProductSnapshotLoader {
+    private static final String SELECT_ALL_SQL = "SELECT id, name, producer, price, expiration_date, creation_time, " +
+            "updated_time FROM products ORDER BY id";
+    private static final String[] COLUMN_LABELS = {"id", "name", "producer", "price", "expiration_date",
+            "creation_time", "updated_time"};
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private final DataSource dataSource;
+    private final int fetchSize;
+
+    public ProductSnapshotLoader(DataSource dataSource) {
+        this(dataSource, DEFAULT_FETCH_SIZE);
+    }
+
+    public ProductSnapshotLoader(DataSource dataSource, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size should be positive");
+        }
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Loads all products ordered by id
+     *
+     * @return columnar snapshot of the products table
+     */
+    public ProductSnapshot load() {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = JdbcUtil.openCursorQuery(connection, SELECT_ALL_SQL, fetchSize)) {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return readSnapshot(resultSet);
+                }
+            } finally {
+                JdbcUtil.endCursorQuery(connection);
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error loading products snapshot", e);
+        }
+    }
+
+    private ProductSnapshot readSnapshot(ResultSet resultSet) throws SQLException {
+        ProductSnapshot.Builder builder = new ProductSnapshot.Builder();
+        BoundRowMapper<Void> rowAppender = RowMapper.<Void>of(row -> appendRow(builder, row), COLUMN_LABELS)
+                .bind(resultSet);
+        while (resultSet.next()) {
+            rowAppender.mapRow();
+        }
+        return builder.build();
+    }
+
+    private static Void appendRow(ProductSnapshot.Builder builder, ResultSetRow row) throws SQLException {
+        builder.add(row.getLong(0),
+                row.getString(1),
+                row.getString(2),
+                row.getBigDecimal(3),
+                row.getLocalDate(4),
+                row.getLocalDateTime(5),
+                row.getLocalDateTime(6));
+        return null;
+    }
+}
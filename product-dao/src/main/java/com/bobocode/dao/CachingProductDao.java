@@ -0,0 +1,376 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+import com.bobocode.model.ProductPriceStats;
+import com.bobocode.util.mapping.RowMapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link CachingProductDao} is a read-through cache in front of another {@link ProductDao}. It caches products loaded
+ * by {@link #findOne(Long)} and {@link #findAllById(Collection)}, and delegates all other reads directly.
+ * <p>
+ * The cache is bounded: entries are split into independent segments by id, each segment is an LRU map guarded by its
+ * own lock, so threads that read different products rarely contend. Max size is divided between segments, so the cache
+ * never holds more than max size products in total, but a product is evicted when its own segment is full, which is
+ * not always the least recently used product of the whole cache. Entries can also expire after a TTL. Updates and
+ * removals made through this DAO invalidate cached entries, and a product loaded concurrently with an invalidation is
+ * not put into the cache, so reads never return a value that was overwritten through this DAO. Changes made by other
+ * processes become visible when an entry expires.
+ * <p>
+ * Cached products are copied on every read and write, so callers can modify returned instances safely.
+ */
+public class CachingProductDao implements ProductDao {
+    private static final int MAX_SEGMENT_COUNT = 16;
+    private final ProductDao productDao;
+    private final Segment[] segments;
+    private final boolean expiring;
+    private final long ttlNanos;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a cache without TTL
+     *
+     * @param productDao a DAO that loads products from the database
+     * @param maxSize    max number of cached products
+     */
+    public CachingProductDao(ProductDao productDao, int maxSize) {
+        this(productDao, maxSize, null);
+    }
+
+    /**
+     * @param productDao a DAO that loads products from the database
+     * @param maxSize    max number of cached products
+     * @param ttl        time after which a cached product is loaded again, or {@code null} to keep products until
+     *                   they are evicted or invalidated
+     */
+    public CachingProductDao(ProductDao productDao, int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache max size should be positive");
+        }
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("Cache TTL should be positive");
+        }
+        if (ttl != null && ttl.compareTo(Duration.ofNanos(Long.MAX_VALUE)) > 0) {
+            throw new IllegalArgumentException("Cache TTL is too long, use null to cache products without TTL");
+        }
+        this.productDao = Objects.requireNonNull(productDao);
+        this.expiring = ttl != null;
+        this.ttlNanos = expiring ? ttl.toNanos() : 0;
+        // a power of two not greater than max size, so every segment can hold at least one product
+        int segmentCount = Integer.highestOneBit(Math.min(maxSize, MAX_SEGMENT_COUNT));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentMaxSize = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(segmentMaxSize);
+        }
+    }
+
+    @Override
+    public void save(Product product) {
+        productDao.save(product);
+    }
+
+    @Override
+    public void saveAll(Collection<Product> products) {
+        productDao.saveAll(products);
+    }
+
+    @Override
+    public void upsert(Product product) {
+        try {
+            productDao.upsert(product);
+        } finally {
+            invalidate(product);
+        }
+    }
+
+    @Override
+    public void upsertAll(Collection<Product> products) {
+        try {
+            productDao.upsertAll(products);
+        } finally {
+            invalidate(products);
+        }
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productDao.findAll();
+    }
+
+    @Override
+    public List<Product> findAll(ProductCriteria criteria) {
+        return productDao.findAll(criteria);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return productDao.streamAll();
+    }
+
+    @Override
+    public void parallelScan(int partitions, Consumer<Product> action) {
+        productDao.parallelScan(partitions, action);
+    }
+
+    @Override
+    public void parallelScan(int partitions, Consumer<Product> action, Executor executor) {
+        productDao.parallelScan(partitions, action, executor);
+    }
+
+    @Override
+    public <R> List<R> findAllAs(RowMapper<R> rowMapper) {
+        return productDao.findAllAs(rowMapper);
+    }
+
+    @Override
+    public <R> R findOneAs(Long id, RowMapper<R> rowMapper) {
+        return productDao.findOneAs(id, rowMapper);
+    }
+
+    @Override
+    public long count() {
+        return productDao.count();
+    }
+
+    @Override
+    public Map<String, Long> countByProducer() {
+        return productDao.countByProducer();
+    }
+
+    @Override
+    public ProductPriceStats getPriceStats() {
+        return productDao.getPriceStats();
+    }
+
+    @Override
+    public Map<String, ProductPriceStats> getPriceStatsByProducer() {
+        return productDao.getPriceStatsByProducer();
+    }
+
+    @Override
+    public List<Product> findPage(Long afterId, int limit) {
+        return productDao.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Product> findPage(ProductSortOrder order, Product after, int limit) {
+        return productDao.findPage(order, after, limit);
+    }
+
+    @Override
+    public ProductChanges findChangedSince(ProductChangeWatermark watermark, int limit) {
+        return productDao.findChangedSince(watermark, limit);
+    }
+
+    @Override
+    public Product findOne(Long id) {
+        Objects.requireNonNull(id);
+        Segment segment = segmentFor(id);
+        Product cachedProduct = segment.get(id);
+        if (cachedProduct != null) {
+            hitCount.increment();
+            return copy(cachedProduct);
+        }
+        missCount.increment();
+        long invalidationCount = segment.getInvalidationCount();
+        Product product = productDao.findOne(id);
+        segment.putIfNotInvalidated(id, copy(product), invalidationCount);
+        return product;
+    }
+
+    @Override
+    public Map<Long, Product> findAllById(Collection<Long> ids) {
+        Objects.requireNonNull(ids);
+        Map<Long, Product> productsById = new HashMap<>(ids.size() * 4 / 3 + 1);
+        List<Long> missingIds = ids.stream()
+                .distinct()
+                .filter(id -> !putCachedProduct(id, productsById))
+                .collect(toList());
+        if (!missingIds.isEmpty()) {
+            long[] invalidationCounts = missingIds.stream()
+                    .mapToLong(id -> segmentFor(id).getInvalidationCount())
+                    .toArray();
+            Map<Long, Product> loadedProducts = productDao.findAllById(missingIds);
+            for (int i = 0; i < missingIds.size(); i++) {
+                Product product = loadedProducts.get(missingIds.get(i));
+                if (product != null) {
+                    segmentFor(product.getId()).putIfNotInvalidated(product.getId(), copy(product), invalidationCounts[i]);
+                }
+            }
+            productsById.putAll(loadedProducts);
+        }
+        return productsById;
+    }
+
+    private boolean putCachedProduct(Long id, Map<Long, Product> productsById) {
+        Product cachedProduct = segmentFor(id).get(id);
+        if (cachedProduct == null) {
+            missCount.increment();
+            return false;
+        }
+        hitCount.increment();
+        productsById.put(id, copy(cachedProduct));
+        return true;
+    }
+
+    @Override
+    public void update(Product product) {
+        try {
+            productDao.update(product);
+        } finally {
+            invalidate(product);
+        }
+    }
+
+    @Override
+    public void remove(Product product) {
+        try {
+            productDao.remove(product);
+        } finally {
+            invalidate(product);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Product> products) {
+        try {
+            productDao.updateAll(products);
+        } finally {
+            invalidate(products);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<Product> products) {
+        try {
+            productDao.removeAll(products);
+        } finally {
+            invalidate(products);
+        }
+    }
+
+    private void invalidate(Collection<Product> products) {
+        if (products != null) {
+            products.forEach(this::invalidate);
+        }
+    }
+
+    private void invalidate(Product product) {
+        if (product != null && product.getId() != null) {
+            segmentFor(product.getId()).invalidate(product.getId());
+        }
+    }
+
+    /**
+     * Removes all products from the cache. Use it after the products table was changed bypassing this DAO.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.invalidateAll();
+        }
+    }
+
+    public ProductCacheStats getStats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new ProductCacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), size);
+    }
+
+    private Segment segmentFor(Long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return segments[(int) (hash >>> 60) & (segments.length - 1)];
+    }
+
+    /**
+     * Products loaded by {@link ProductDaoImpl} are copied with their change tracking snapshot, so updating a cached
+     * product still writes only the changed columns
+     */
+    private static Product copy(Product product) {
+        return TrackedProduct.copyOf(product);
+    }
+
+    private static class CacheEntry {
+        private final Product product;
+        private final long expiresAtNanos;
+
+        private CacheEntry(Product product, long expiresAtNanos) {
+            this.product = product;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private class Segment {
+        private final Map<Long, CacheEntry> entries;
+        private long invalidationCount;
+
+        private Segment(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry> eldest) {
+                    if (size() > maxSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized Product get(Long id) {
+            CacheEntry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (expiring && System.nanoTime() - entry.expiresAtNanos >= 0) {
+                entries.remove(id);
+                evictionCount.increment();
+                return null;
+            }
+            return entry.product;
+        }
+
+        private synchronized long getInvalidationCount() {
+            return invalidationCount;
+        }
+
+        private synchronized void putIfNotInvalidated(Long id, Product product, long expectedInvalidationCount) {
+            if (invalidationCount == expectedInvalidationCount) {
+                // may overflow, which is fine as expiration is checked by comparing differences of nanoTime
+                long expiresAtNanos = expiring ? System.nanoTime() + ttlNanos : 0;
+                entries.put(id, new CacheEntry(product, expiresAtNanos));
+            }
+        }
+
+        private synchronized void invalidate(Long id) {
+            invalidationCount++;
+            entries.remove(id);
+        }
+
+        private synchronized void invalidateAll() {
+            invalidationCount++;
+            entries.clear();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.bobocode.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ExpiredProductPurger} deletes products whose expiration date is before today in the background. Instead of
+ * one {@code DELETE} of all expired rows, that locks them all in one long transaction, it deletes
+ * {@link PurgeConfig#getChunkSize()} rows per statement, and schedules the next chunk after
+ * {@link PurgeConfig#getPauseBetweenChunks()}. When no expired products are left, the next purge is scheduled after
+ * {@link PurgeConfig#getPurgeInterval()}. Chunks are found by {@code expiration_date}, so create the indexes with
+ * {@link ProductIndexes} to avoid scanning the table for every chunk.
+ * <p>
+ * Products are deleted bypassing {@link ProductDao}, so {@link CachingProductDao} can return a purged product until its
+ * cache entry expires. Call {@link #close()} to stop the background thread.
+ */
+public class ExpiredProductPurger implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ExpiredProductPurger.class);
+    private static final String REMOVE_EXPIRED_CHUNK_SQL = "DELETE FROM products WHERE id IN " +
+            "(SELECT id FROM products WHERE expiration_date < ? LIMIT ?)";
+    private final DataSource dataSource;
+    private final PurgeConfig config;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final LongAdder deletedCount = new LongAdder();
+    private final LongAdder chunkCount = new LongAdder();
+    private final LongAdder deleteTimeNanos = new LongAdder();
+    private volatile long lastCompletedPurgeNanos = System.nanoTime();
+
+    public ExpiredProductPurger(DataSource dataSource) {
+        this(dataSource, PurgeConfig.defaultConfig());
+    }
+
+    public ExpiredProductPurger(DataSource dataSource, PurgeConfig config) {
+        if (config.getChunkSize() <= 0) {
+            throw new IllegalArgumentException("Chunk size should be positive");
+        }
+        if (config.getPauseBetweenChunks().isNegative()) {
+            throw new IllegalArgumentException("Pause between chunks should not be negative");
+        }
+        if (config.getPurgeInterval().isNegative() || config.getPurgeInterval().isZero()) {
+            throw new IllegalArgumentException("Purge interval should be positive");
+        }
+        this.dataSource = Objects.requireNonNull(dataSource);
+        this.config = config;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "expired-product-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the next chunk or purge is always pending, so it should not delay close()
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        scheduleNext(config.getPurgeInterval());
+    }
+
+    /**
+     * Each run deletes one chunk and schedules the next one, so the thread does not sleep between chunks and
+     * {@link #close()} stops the purge right away
+     */
+    private void purgeChunk() {
+        Duration nextDelay = config.getPurgeInterval();
+        try {
+            int deleted = removeExpiredChunk();
+            if (deleted == config.getChunkSize()) {
+                nextDelay = config.getPauseBetweenChunks();
+            } else {
+                lastCompletedPurgeNanos = System.nanoTime();
+            }
+        } catch (SQLException e) {
+            log.error("Error purging expired products", e);
+        } finally {
+            scheduleNext(nextDelay);
+        }
+    }
+
+    private int removeExpiredChunk() throws SQLException {
+        long startNanos = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(REMOVE_EXPIRED_CHUNK_SQL)) {
+            statement.setDate(1, Date.valueOf(LocalDate.now()));
+            statement.setInt(2, config.getChunkSize());
+            int deleted = statement.executeUpdate();
+            deletedCount.add(deleted);
+            chunkCount.increment();
+            return deleted;
+        } finally {
+            deleteTimeNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    private void scheduleNext(Duration delay) {
+        try {
+            scheduler.schedule(this::purgeChunk, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the purger is closed
+        }
+    }
+
+    public PurgeStats getStats() {
+        long deleted = deletedCount.sum();
+        long timeNanos = deleteTimeNanos.sum();
+        double rowsPerSecond = timeNanos == 0 ? 0 : deleted * 1e9 / timeNanos;
+        Duration lag = Duration.ofNanos(System.nanoTime() - lastCompletedPurgeNanos);
+        return new PurgeStats(deleted, chunkCount.sum(), rowsPerSecond, lag);
+    }
+
+    /**
+     * Stops the background thread. A chunk that is being deleted is completed.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
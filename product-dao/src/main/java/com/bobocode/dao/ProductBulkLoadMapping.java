@@ -0,0 +1,25 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+import com.bobocode.util.bulk.BulkLoadMapping;
+import com.bobocode.util.bulk.BulkLoader;
+
+import java.util.List;
+
+/**
+ * {@link ProductBulkLoadMapping} maps {@link Product} to the {@code products} table for {@link BulkLoader}. Ids and
+ * creation time are generated by the database, so they are not loaded.
+ */
+public final class ProductBulkLoadMapping {
+    public static final BulkLoadMapping<Product> PRODUCTS = BulkLoadMapping.of("products",
+            List.of("name", "producer", "price", "expiration_date"),
+            (product, writer) -> {
+                writer.writeString(product.getName());
+                writer.writeString(product.getProducer());
+                writer.writeDecimal(product.getPrice());
+                writer.writeDate(product.getExpirationDate());
+            });
+
+    private ProductBulkLoadMapping() {
+    }
+}
@@ -0,0 +1,23 @@
+package com.bobocode.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * {@link ProductCacheStats} is a point-in-time copy of {@link CachingProductDao} counters
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ProductCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+}
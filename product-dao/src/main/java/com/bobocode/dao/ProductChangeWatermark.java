@@ -0,0 +1,36 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * {@link ProductChangeWatermark} is a position in the products change feed: the {@code updated_time} and id of the last
+ * product a reader has seen. {@link ProductDao#findChangedSince(ProductChangeWatermark, int)} returns products that go
+ * after it in {@code (updated_time, id)} order. A watermark can be stored by the reader to resume after a restart.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ProductChangeWatermark {
+    private final LocalDateTime updatedTime;
+    private final long id;
+
+    /**
+     * Creates a watermark that goes right after a given product
+     *
+     * @param product the last product a reader has seen
+     * @return watermark of the product
+     */
+    public static ProductChangeWatermark after(Product product) {
+        Objects.requireNonNull(product.getUpdatedTime(), "Updated time of the last product is required");
+        Objects.requireNonNull(product.getId(), "Id of the last product is required");
+        return new ProductChangeWatermark(product.getUpdatedTime(), product.getId());
+    }
+}
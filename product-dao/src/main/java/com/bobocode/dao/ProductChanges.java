@@ -0,0 +1,30 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * {@link ProductChanges} is a page of the products change feed returned by
+ * {@link ProductDao#findChangedSince(ProductChangeWatermark, int)}
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ProductChanges {
+    /**
+     * Created or updated products in {@code (updated_time, id)} order
+     */
+    private final List<Product> products;
+    /**
+     * A watermark to read the next page. It is the same as the requested one when there are no new changes.
+     */
+    private final ProductChangeWatermark nextWatermark;
+    /**
+     * {@code true} if the page is full, so more changes can be read right away
+     */
+    private final boolean moreAvailable;
+}
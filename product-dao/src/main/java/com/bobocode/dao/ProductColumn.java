@@ -0,0 +1,102 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * {@link ProductColumn} lists updatable columns of the {@code products} table, and knows how to bind a value of the
+ * corresponding {@link Product} field to a statement parameter
+ */
+public enum ProductColumn {
+    NAME("name") {
+        @Override
+        void bind(Product product, PreparedStatement statement, int parameterIndex) throws SQLException {
+            statement.setString(parameterIndex, product.getName());
+        }
+
+        @Override
+        boolean valueEquals(Product product, Product other) {
+            return Objects.equals(product.getName(), other.getName());
+        }
+
+        @Override
+        void copyValue(Product source, Product target) {
+            target.setName(source.getName());
+        }
+    },
+    PRODUCER("producer") {
+        @Override
+        void bind(Product product, PreparedStatement statement, int parameterIndex) throws SQLException {
+            statement.setString(parameterIndex, product.getProducer());
+        }
+
+        @Override
+        boolean valueEquals(Product product, Product other) {
+            return Objects.equals(product.getProducer(), other.getProducer());
+        }
+
+        @Override
+        void copyValue(Product source, Product target) {
+            target.setProducer(source.getProducer());
+        }
+    },
+    PRICE("price") {
+        @Override
+        void bind(Product product, PreparedStatement statement, int parameterIndex) throws SQLException {
+            statement.setBigDecimal(parameterIndex, product.getPrice());
+        }
+
+        /**
+         * Prices that differ only in scale (e.g. {@code 10.00} and {@code 10.0000}) are stored the same way
+         */
+        @Override
+        boolean valueEquals(Product product, Product other) {
+            BigDecimal price = product.getPrice();
+            BigDecimal otherPrice = other.getPrice();
+            return price == null ? otherPrice == null : otherPrice != null && price.compareTo(otherPrice) == 0;
+        }
+
+        @Override
+        void copyValue(Product source, Product target) {
+            target.setPrice(source.getPrice());
+        }
+    },
+    EXPIRATION_DATE("expiration_date") {
+        @Override
+        void bind(Product product, PreparedStatement statement, int parameterIndex) throws SQLException {
+            statement.setDate(parameterIndex,
+                    product.getExpirationDate() != null ? Date.valueOf(product.getExpirationDate()) : null);
+        }
+
+        @Override
+        boolean valueEquals(Product product, Product other) {
+            return Objects.equals(product.getExpirationDate(), other.getExpirationDate());
+        }
+
+        @Override
+        void copyValue(Product source, Product target) {
+            target.setExpirationDate(source.getExpirationDate());
+        }
+    };
+
+    private final String columnName;
+
+    ProductColumn(String columnName) {
+        this.columnName = columnName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    abstract void bind(Product product, PreparedStatement statement, int parameterIndex) throws SQLException;
+
+    abstract boolean valueEquals(Product product, Product other);
+
+    abstract void copyValue(Product source, Product target);
+}
@@ -0,0 +1,45 @@
+package com.bobocode.dao;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@link ProductCriteria} is a set of filters for {@link ProductDao#findAll(ProductCriteria)}. Every filter is optional,
+ * and a product should match all filters that are set. Use {@link ProductCriteria#builder()} to create criteria, e.g.
+ * {@code ProductCriteria.builder().producer("Nestle").maxPrice(BigDecimal.TEN).build()}.
+ * <p>
+ * Each filter can be served by an index created with {@link ProductIndexes}.
+ */
+@Getter
+@Builder
+@ToString
+public class ProductCriteria {
+    /**
+     * Exact producer name
+     */
+    private final String producer;
+    /**
+     * Min price, inclusive. Products without price do not match price filters
+     */
+    private final BigDecimal minPrice;
+    /**
+     * Max price, inclusive
+     */
+    private final BigDecimal maxPrice;
+    /**
+     * The first day of the expiration date window, inclusive
+     */
+    private final LocalDate expiresFrom;
+    /**
+     * The day after the expiration date window, exclusive
+     */
+    private final LocalDate expiresBefore;
+    /**
+     * Case-sensitive name prefix. {@code %} and {@code _} are matched literally
+     */
+    private final String namePrefix;
+}
@@ -1,8 +1,15 @@
 package com.bobocode.dao;
 
 import com.bobocode.model.Product;
+import com.bobocode.model.ProductPriceStats;
+import com.bobocode.util.mapping.RowMapper;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * {@link ProductDao} is an Data Access Object pattern (DAO) that encapsulates all database access and manipulation logic.
@@ -16,6 +23,32 @@ public interface ProductDao {
      */
     void save(Product product);
 
+    /**
+     * Stores new products into the database using JDBC batches within a single transaction. Sets generated ids
+     * to the {@link Product} instances. If any product cannot be stored, none of them are stored.
+     *
+     * @param products new products
+     */
+    void saveAll(Collection<Product> products);
+
+    /**
+     * Stores a product with one statement: a product without id is saved as a new one, and a product with id is
+     * inserted if it does not exist or updated otherwise. Uses {@code MERGE} on H2 and {@code INSERT ... ON CONFLICT}
+     * on PostgreSQL. A product inserted with a given id does not advance the id sequence, so such ids should not
+     * overlap with generated ones.
+     *
+     * @param product new or stored product
+     */
+    void upsert(Product product);
+
+    /**
+     * Upserts products using JDBC batches within a single transaction. Products without ids are saved as new ones,
+     * and get generated ids. If any product cannot be stored, none of them are stored.
+     *
+     * @param products new or stored products
+     */
+    void upsertAll(Collection<Product> products);
+
     /**
      * Retrieves and returns all producrs from the database
      *
@@ -23,6 +56,125 @@ public interface ProductDao {
      */
     List<Product> findAll();
 
+    /**
+     * Retrieves products that match given criteria, ordered by id. Filters are applied by the database, so create
+     * indexes with {@link ProductIndexes} to avoid scanning the whole table.
+     *
+     * @param criteria product filters
+     * @return list of matching products
+     */
+    List<Product> findAll(ProductCriteria criteria);
+
+    /**
+     * Returns a lazy stream of all products that is backed by an open database cursor. Rows are fetched in chunks
+     * while the stream is consumed, so memory usage does not depend on the table size. The stream holds a database
+     * connection, so it must be closed after use (e.g. with try-with-resources).
+     *
+     * @return stream of all products
+     */
+    Stream<Product> streamAll();
+
+    /**
+     * Reads all products in parallel. The id range is split into {@code partitions} ranges of equal width, and each
+     * range is read by its own thread on its own connection, so the data source should allow that many connections.
+     * Products are passed to the action from several threads in no particular order, so the action should be
+     * thread-safe. The method returns when all partitions are read. Products saved during the scan may be skipped.
+     * Partitions run on a thread pool shared by all scans.
+     *
+     * @param partitions number of id ranges read concurrently
+     * @param action     an action to perform on every product
+     */
+    void parallelScan(int partitions, Consumer<Product> action);
+
+    /**
+     * Reads all products in parallel like {@link #parallelScan(int, Consumer)}, running partitions on a given executor.
+     * When a partition fails, other partitions are stopped before their next row and interrupted. The method returns or
+     * throws only after all partitions have stopped, so the action is never called after that.
+     *
+     * @param partitions number of id ranges read concurrently
+     * @param action     an action to perform on every product
+     * @param executor   an executor that runs partitions, it should be able to run {@code partitions} tasks at once
+     */
+    void parallelScan(int partitions, Consumer<Product> action, Executor executor);
+
+    /**
+     * Retrieves only the columns used by a given row mapper, and maps all rows with it. Use it when a full
+     * {@link Product} is not needed, e.g. {@code findAllAs(ProductProjections.SUMMARY)}.
+     *
+     * @param rowMapper a mapper whose column labels are {@code products} column names
+     * @param <R>       projection type
+     * @return list of all projected products
+     */
+    <R> List<R> findAllAs(RowMapper<R> rowMapper);
+
+    /**
+     * Counts products in the database without loading them
+     *
+     * @return number of products
+     */
+    long count();
+
+    /**
+     * Counts products of every producer with one {@code GROUP BY} query
+     *
+     * @return number of products by producer, ordered by producer
+     */
+    Map<String, Long> countByProducer();
+
+    /**
+     * Calculates min, max, total and average price of all products in the database
+     *
+     * @return price aggregates of all products
+     */
+    ProductPriceStats getPriceStats();
+
+    /**
+     * Calculates price aggregates of every producer with one {@code GROUP BY} query
+     *
+     * @return price aggregates by producer, ordered by producer
+     */
+    Map<String, ProductPriceStats> getPriceStatsByProducer();
+
+    /**
+     * Returns a page of products ordered by id that goes right after a given id. Unlike offset pagination,
+     * the database seeks the page start by the primary key index, so any page costs the same as the first one.
+     *
+     * @param afterId the id of the last product of the previous page, or {@code null} for the first page
+     * @param limit   max number of products on a page
+     * @return products with id greater than {@code afterId}
+     */
+    List<Product> findPage(Long afterId, int limit);
+
+    /**
+     * Returns a page of products in a given order that goes right after a given product
+     *
+     * @param order sort order
+     * @param after the last product of the previous page, or {@code null} for the first page
+     * @param limit max number of products on a page
+     * @return next page of products
+     */
+    List<Product> findPage(ProductSortOrder order, Product after, int limit);
+
+    /**
+     * Returns products created or updated after a given watermark, ordered by {@code (updated_time, id)}. Saves and
+     * updates set {@code updated_time} to the database time, so a reader that keeps the returned watermark reads only
+     * new changes, and the cost depends on the rate of changes rather than the table size.
+     * <p>
+     * {@code updated_time} is set when a row is written, but the change becomes visible only on commit. So a page
+     * includes only changes older than the database time minus a safety lag (5 seconds by default, see
+     * {@link ProductDaoImpl#ProductDaoImpl(javax.sql.DataSource, int, int, java.time.Duration)}), and the watermark
+     * never passes a change that may still be uncommitted. A change committed later than the lag after it was written
+     * can be missed, so the lag should be longer than the longest write transaction.
+     * <p>
+     * Removed products are not in the feed. Readers that mirror the table, e.g. caches, have to learn about removals
+     * in another way, e.g. by checking the ids they hold with {@link #findAllById(Collection)}.
+     *
+     * @param watermark the position returned by the previous call, or {@code null} to read from the beginning
+     * @param limit     max number of products on a page
+     * @return next page of changes and the watermark for the next call
+     */
+    ProductChanges findChangedSince(ProductChangeWatermark watermark, int limit);
+
     /**
      * Returns a product object by its id
      *
@@ -32,16 +184,57 @@ public interface ProductDao {
     Product findOne(Long id);
 
     /**
-     * Updates existing product.
+     * Returns a projection of one product by its id, retrieving only the columns used by a given row mapper
+     *
+     * @param id        product identifier (primary key)
+     * @param rowMapper a mapper whose column labels are {@code products} column names
+     * @param <R>       projection type
+     * @return projected product
+     */
+    <R> R findOneAs(Long id, RowMapper<R> rowMapper);
+
+    /**
+     * Returns products with given ids using a few {@code IN (...)} queries instead of one query per id.
+     * Ids that do not exist are not included into the result.
+     *
+     * @param ids product identifiers
+     * @return found products by their ids
+     */
+    Map<Long, Product> findAllById(Collection<Long> ids);
+
+    /**
+     * Updates existing product. A product returned by this DAO remembers the values it was loaded with, so only the
+     * changed columns are written, and nothing is written if no fields were changed. Other products are written
+     * completely. The database sets a new {@code updated_time}, and it is not read back, so {@code updatedTime} of an
+     * updated product is cleared. Reload the product to get it.
      *
      * @param product stored product with updated fields
      */
     void update(Product product);
 
+    /**
+     * Updates existing products using JDBC batches within a single transaction. Like {@link #update(Product)},
+     * it writes only changed columns of products returned by this DAO, and skips unchanged ones. If any product does
+     * not exist or cannot be updated, none of them are updated, and the exception message names the failed product.
+     * {@code updatedTime} of updated products is cleared like in {@link #update(Product)}.
+     *
+     * @param products stored products with updated fields
+     */
+    void updateAll(Collection<Product> products);
+
     /**
      * Removes an existing product from the database
      *
      * @param product stored product
      */
     void remove(Product product);
+
+    /**
+     * Removes existing products using a few {@code DELETE ... WHERE id IN (...)} statements within a single
+     * transaction. If any product does not exist, none of them are removed, and the exception message names the
+     * missing product id.
+     *
+     * @param products stored products
+     */
+    void removeAll(Collection<Product> products);
 }
@@ -1,40 +1,1308 @@
 package com.bobocode.dao;
 
+import com.bobocode.exception.DaoOperationException;
 import com.bobocode.model.Product;
+import com.bobocode.model.ProductPriceStats;
+import com.bobocode.util.mapping.BoundRowMapper;
+import com.bobocode.util.mapping.ResultSetRow;
+import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.SqlDialect;
+import com.bobocode.util.mapping.RowMapper;
 
 import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.partitioningBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link ProductDaoImpl} implements {@link ProductDao} using plain JDBC API. Every method takes a connection from the
+ * {@link DataSource} and closes all statements it has created, so it works well with pooled connections and
+ * statement caching.
+ * <p>
+ * Bulk operations split their input into JDBC batches of {@code batchSize} statements and run them in one
+ * transaction. Streaming reads fetch {@code fetchSize} rows per database round trip.
+ * <p>
+ * Loaded products are instances of {@link TrackedProduct}, so updates write only changed columns. {@code UPDATE}
+ * statements are created once per set of changed columns and cached.
+ */
 public class ProductDaoImpl implements ProductDao {
+    private static final String INSERT_SQL = "INSERT INTO products(name, producer, price, expiration_date) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_WITH_ID_SQL =
+            "INSERT INTO products(name, producer, price, expiration_date, id) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_ALL_SQL = "SELECT * FROM products";
+    private static final String SELECT_FIRST_PAGE_BY_ID_SQL = "SELECT * FROM products ORDER BY id LIMIT ?";
+    private static final String SELECT_PAGE_BY_ID_SQL = "SELECT * FROM products WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_FIRST_PAGE_BY_CREATION_TIME_SQL =
+            "SELECT * FROM products ORDER BY creation_time, id LIMIT ?";
+    private static final String SELECT_PAGE_BY_CREATION_TIME_SQL = "SELECT * FROM products " +
+            "WHERE (creation_time, id) > (?, ?) ORDER BY creation_time, id LIMIT ?";
+    private static final String DATABASE_TIME_COLUMN = "database_time";
+    private static final String SELECT_FIRST_CHANGES_SQL = "SELECT *, CURRENT_TIMESTAMP AS database_time FROM products " +
+            "ORDER BY updated_time, id LIMIT ?";
+    private static final String SELECT_CHANGES_SQL = "SELECT *, CURRENT_TIMESTAMP AS database_time FROM products " +
+            "WHERE (updated_time, id) > (?, ?) ORDER BY updated_time, id LIMIT ?";
+    private static final String SELECT_BY_ID_SQL = "SELECT * FROM products WHERE id = ?";
+    private static final String SELECT_ID_RANGE_SQL = "SELECT MIN(id), MAX(id) FROM products";
+    private static final String SELECT_BY_ID_RANGE_SQL = "SELECT * FROM products WHERE id BETWEEN ? AND ?";
+    private static final String LIKE_ESCAPE = "\\";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM products";
+    private static final String COUNT_BY_PRODUCER_SQL =
+            "SELECT producer, COUNT(*) FROM products GROUP BY producer ORDER BY producer";
+    private static final String PRICE_STATS_SQL =
+            "SELECT COUNT(*), MIN(price), MAX(price), SUM(price), AVG(price) FROM products";
+    private static final String PRICE_STATS_BY_PRODUCER_SQL = "SELECT producer, COUNT(*), MIN(price), MAX(price), " +
+            "SUM(price), AVG(price) FROM products GROUP BY producer ORDER BY producer";
+    private static final Set<String> PRODUCT_COLUMN_NAMES =
+            Set.of("id", "name", "producer", "price", "expiration_date", "creation_time", "updated_time");
+    private static final Map<List<String>, ProjectionSql> PROJECTION_SQL_BY_COLUMNS = new ConcurrentHashMap<>();
+    private static final Set<ProductColumn> ALL_COLUMNS = Collections.unmodifiableSet(EnumSet.allOf(ProductColumn.class));
+    private static final Map<Set<ProductColumn>, String> UPDATE_BY_ID_SQL_BY_COLUMNS = new ConcurrentHashMap<>();
+    private static final String REMOVE_BY_ID_SQL = "DELETE FROM products WHERE id = ?";
+    private static final String SELECT_BY_IDS_SQL_TEMPLATE = "SELECT * FROM products WHERE id IN (%s)";
+    private static final String SELECT_IDS_BY_IDS_SQL_TEMPLATE = "SELECT id FROM products WHERE id IN (%s)";
+    private static final String REMOVE_BY_IDS_SQL_TEMPLATE = "DELETE FROM products WHERE id IN (%s)";
+    private static final int MAX_IN_LIST_SIZE = 256;
+    private static final String[] SELECT_BY_IDS_SQL_BY_POWER_OF_TWO = createInListSql(SELECT_BY_IDS_SQL_TEMPLATE);
+    private static final String[] SELECT_IDS_BY_IDS_SQL_BY_POWER_OF_TWO = createInListSql(SELECT_IDS_BY_IDS_SQL_TEMPLATE);
+    private static final String[] REMOVE_BY_IDS_SQL_BY_POWER_OF_TWO = createInListSql(REMOVE_BY_IDS_SQL_TEMPLATE);
+    private static final RowMapper<Product> PRODUCT_ROW_MAPPER = RowMapper.of(ProductDaoImpl::createFromRow,
+            "id", "name", "producer", "price", "expiration_date", "creation_time", "updated_time");
+    private static final List<String> UPSERT_COLUMNS =
+            List.of("name", "producer", "price", "expiration_date", "id", "updated_time");
+    private static final List<String> UPSERT_VALUES = List.of("?", "?", "?", "?", "?", "now()");
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final Duration DEFAULT_CHANGE_FEED_LAG = Duration.ofSeconds(5);
+    private static final AtomicInteger SCAN_THREAD_COUNT = new AtomicInteger();
+    /**
+     * Runs partitions of {@link #parallelScan(int, Consumer)}. Idle threads are stopped after a minute, so the pool
+     * does not hold threads between scans.
+     */
+    private static final ExecutorService SCAN_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "product-dao-scan-" + SCAN_THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private DataSource dataSource;
+    private final int batchSize;
+    private final int fetchSize;
+    private final Duration changeFeedLag;
+    private volatile SqlDialect dialect;
+    private volatile String upsertSql;
 
     public ProductDaoImpl(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public ProductDaoImpl(DataSource dataSource, int batchSize) {
+        this(dataSource, batchSize, DEFAULT_FETCH_SIZE);
+    }
+
+    public ProductDaoImpl(DataSource dataSource, int batchSize, int fetchSize) {
+        this(dataSource, batchSize, fetchSize, DEFAULT_CHANGE_FEED_LAG);
+    }
+
+    /**
+     * @param changeFeedLag {@link #findChangedSince(ProductChangeWatermark, int)} returns only changes older than the
+     *                      database time minus this lag, so it should be longer than the longest write transaction
+     */
+    public ProductDaoImpl(DataSource dataSource, int batchSize, int fetchSize, Duration changeFeedLag) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive");
+        }
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size should be positive");
+        }
+        if (changeFeedLag.isNegative()) {
+            throw new IllegalArgumentException("Change feed lag should not be negative");
+        }
         this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.changeFeedLag = changeFeedLag;
     }
 
     @Override
     public void save(Product product) {
-        throw new UnsupportedOperationException("None of these methods will work unless you implement them!");// todo
+        Objects.requireNonNull(product);
+        try (Connection connection = dataSource.getConnection()) {
+            saveProduct(product, connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error saving product: %s", product), e);
+        }
+    }
+
+    private void saveProduct(Product product, Connection connection) throws SQLException {
+        try (PreparedStatement insertStatement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            fillProductStatement(product, insertStatement);
+            insertStatement.executeUpdate();
+            Long id = fetchGeneratedId(insertStatement);
+            product.setId(id);
+        }
+    }
+
+    private void fillProductStatement(Product product, PreparedStatement statement) throws SQLException {
+        statement.setString(1, product.getName());
+        statement.setString(2, product.getProducer());
+        statement.setBigDecimal(3, product.getPrice());
+        statement.setDate(4, product.getExpirationDate() != null ? Date.valueOf(product.getExpirationDate()) : null);
+    }
+
+    private Long fetchGeneratedId(PreparedStatement insertStatement) throws SQLException {
+        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                return generatedKeys.getLong(1);
+            } else {
+                throw new DaoOperationException("Can not obtain product ID");
+            }
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Product> products) {
+        Objects.requireNonNull(products);
+        if (products.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            saveProductsInTransaction(products, Collections.emptyList(), connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error saving %d products", products.size()), e);
+        }
+    }
+
+    /**
+     * Inserts new products and upserts products with ids in one transaction. Generated ids are cleared if the
+     * transaction is rolled back.
+     */
+    private void saveProductsInTransaction(Collection<Product> newProducts, Collection<Product> productsWithIds,
+                                           Connection connection) throws SQLException {
+        List<Product> savedProducts = new ArrayList<>(newProducts.size());
+        try {
+            runInTransaction(connection, () -> {
+                if (!newProducts.isEmpty()) {
+                    saveProductBatches(newProducts, connection, savedProducts);
+                }
+                if (!productsWithIds.isEmpty()) {
+                    upsertProductBatches(productsWithIds, connection);
+                }
+            });
+        } catch (SQLException | RuntimeException e) {
+            savedProducts.forEach(product -> product.setId(null));
+            throw e;
+        }
+    }
+
+    private void saveProductBatches(Collection<Product> products, Connection connection, List<Product> savedProducts)
+            throws SQLException {
+        try (PreparedStatement insertStatement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            List<Product> batch = new ArrayList<>(Math.min(batchSize, products.size()));
+            Iterator<Product> productIterator = products.iterator();
+            while (productIterator.hasNext()) {
+                Product product = productIterator.next();
+                fillProductStatement(product, insertStatement);
+                insertStatement.addBatch();
+                batch.add(product);
+                if (batch.size() == batchSize || !productIterator.hasNext()) {
+                    executeInsertBatch(insertStatement, batch);
+                    savedProducts.addAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void executeInsertBatch(PreparedStatement insertStatement, List<Product> batch) throws SQLException {
+        try {
+            insertStatement.executeBatch();
+        } catch (BatchUpdateException e) {
+            int failedIndex = Math.min(findFailedBatchIndex(e.getUpdateCounts()), batch.size() - 1);
+            Product invalidProduct = batch.get(failedIndex);
+            throw new DaoOperationException(String.format("Error saving product: %s", invalidProduct), e);
+        }
+        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+            for (Product product : batch) {
+                if (!generatedKeys.next()) {
+                    throw new DaoOperationException("Can not obtain product ID");
+                }
+                product.setId(generatedKeys.getLong(1));
+            }
+        }
+    }
+
+    /**
+     * Some drivers stop a batch on the first failure (so update counts are shorter than a batch), others continue and
+     * mark failed statements with {@link Statement#EXECUTE_FAILED}
+     */
+    private int findFailedBatchIndex(int[] updateCounts) {
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                return i;
+            }
+        }
+        return updateCounts.length;
+    }
+
+    @Override
+    public void upsert(Product product) {
+        Objects.requireNonNull(product);
+        if (product.getId() == null) {
+            save(product);
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            upsertProduct(product, connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error upserting product: %s", product), e);
+        }
+    }
+
+    private void upsertProduct(Product product, Connection connection) throws SQLException {
+        SqlDialect dialect = getDialect(connection);
+        if (!dialect.supportsUpsert()) {
+            runInTransaction(connection, () -> updateOrInsertProductBatches(List.of(product), connection));
+            return;
+        }
+        try (PreparedStatement upsertStatement = connection.prepareStatement(getUpsertSql(dialect))) {
+            bindColumnsAndId(product, ALL_COLUMNS, upsertStatement);
+            upsertStatement.executeUpdate();
+        }
+    }
+
+    private void upsertProductBatches(Collection<Product> products, Connection connection) throws SQLException {
+        SqlDialect dialect = getDialect(connection);
+        if (dialect.supportsUpsert()) {
+            executeBatchesById(getUpsertSql(dialect), ALL_COLUMNS, "upserting", products, connection,
+                    (batch, updateCounts) -> {
+                    });
+        } else {
+            updateOrInsertProductBatches(products, connection);
+        }
+    }
+
+    /**
+     * Emulates upsert for databases without upsert syntax: updates products by id first, and then inserts the ones
+     * that were not found. Must run in a transaction.
+     */
+    private void updateOrInsertProductBatches(Collection<Product> products, Connection connection) throws SQLException {
+        Map<Long, Product> missingProductsById = new LinkedHashMap<>();
+        executeBatchesById(getUpdateSql(ALL_COLUMNS), ALL_COLUMNS, "upserting", products, connection,
+                (batch, updateCounts) -> collectMissingProducts(batch, updateCounts, connection, missingProductsById));
+        if (!missingProductsById.isEmpty()) {
+            executeBatchesById(INSERT_WITH_ID_SQL, ALL_COLUMNS, "upserting", missingProductsById.values(), connection,
+                    (batch, updateCounts) -> {
+                    });
+        }
+    }
+
+    private void collectMissingProducts(List<Product> batch, int[] updateCounts, Connection connection,
+                                        Map<Long, Product> missingProductsById) throws SQLException {
+        boolean countsAreKnown = true;
+        for (int updateCount : updateCounts) {
+            countsAreKnown &= updateCount != Statement.SUCCESS_NO_INFO;
+        }
+        Set<Long> existingIds = countsAreKnown ? Collections.emptySet()
+                : findExistingIds(batch.stream().map(Product::getId).distinct().collect(toList()), connection);
+        for (int i = 0; i < batch.size(); i++) {
+            Product product = batch.get(i);
+            boolean missing = countsAreKnown ? updateCounts[i] == 0 : !existingIds.contains(product.getId());
+            if (missing) {
+                // the last of duplicate products wins, like with a real upsert
+                missingProductsById.put(product.getId(), product);
+            }
+        }
+    }
+
+    /**
+     * Upsert syntax depends on the database, so the statement is created for a dialect detected on first use
+     */
+    private String getUpsertSql(SqlDialect dialect) {
+        String sql = upsertSql;
+        if (sql == null) {
+            sql = dialect.createUpsertSql("products", "id", UPSERT_COLUMNS, UPSERT_VALUES);
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    private SqlDialect getDialect(Connection connection) throws SQLException {
+        SqlDialect sqlDialect = dialect;
+        if (sqlDialect == null) {
+            sqlDialect = SqlDialect.of(connection);
+            dialect = sqlDialect;
+        }
+        return sqlDialect;
+    }
+
+    @Override
+    public void upsertAll(Collection<Product> products) {
+        Objects.requireNonNull(products);
+        products.forEach(Objects::requireNonNull);
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<Boolean, List<Product>> productsByNew = products.stream()
+                .collect(partitioningBy(product -> product.getId() == null));
+        try (Connection connection = dataSource.getConnection()) {
+            saveProductsInTransaction(productsByNew.get(true), productsByNew.get(false), connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error upserting %d products", products.size()), e);
+        }
     }
 
     @Override
     public List<Product> findAll() {
-        throw new UnsupportedOperationException("None of these methods will work unless you implement them!");// todo
+        try (Connection connection = dataSource.getConnection()) {
+            return findAllProducts(connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error finding all products", e);
+        }
+    }
+
+    private List<Product> findAllProducts(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ALL_SQL)) {
+            return collectToList(resultSet);
+        }
+    }
+
+    @Override
+    public <R> List<R> findAllAs(RowMapper<R> rowMapper) {
+        Objects.requireNonNull(rowMapper);
+        String sql = getProjectionSql(rowMapper).selectAllSql;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return rowMapper.mapAll(resultSet);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error finding all products as %s", rowMapper.getColumnLabels()), e);
+        }
+    }
+
+    @Override
+    public List<Product> findAll(ProductCriteria criteria) {
+        Objects.requireNonNull(criteria);
+        List<Object> parameters = new ArrayList<>();
+        String sql = createSelectByCriteriaSql(criteria, parameters);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return collectToList(resultSet);
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error finding products by %s", criteria), e);
+        }
+    }
+
+    /**
+     * Values are never concatenated into SQL, so a statement only depends on which filters are set, and there are
+     * few distinct statements to prepare and cache
+     */
+    private static String createSelectByCriteriaSql(ProductCriteria criteria, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.getProducer() != null) {
+            conditions.add("producer = ?");
+            parameters.add(criteria.getProducer());
+        }
+        if (criteria.getMinPrice() != null) {
+            conditions.add("price >= ?");
+            parameters.add(criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            conditions.add("price <= ?");
+            parameters.add(criteria.getMaxPrice());
+        }
+        if (criteria.getExpiresFrom() != null) {
+            conditions.add("expiration_date >= ?");
+            parameters.add(Date.valueOf(criteria.getExpiresFrom()));
+        }
+        if (criteria.getExpiresBefore() != null) {
+            conditions.add("expiration_date < ?");
+            parameters.add(Date.valueOf(criteria.getExpiresBefore()));
+        }
+        if (criteria.getNamePrefix() != null) {
+            conditions.add(String.format("name LIKE ? ESCAPE '%s'", LIKE_ESCAPE));
+            parameters.add(escapeLikePattern(criteria.getNamePrefix()) + "%");
+        }
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return SELECT_ALL_SQL + where + " ORDER BY id";
+    }
+
+    private static String escapeLikePattern(String value) {
+        return value.replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+    }
+
+    /**
+     * Column labels of the mapper are checked against known column names, because they become a part of SQL
+     */
+    private static ProjectionSql getProjectionSql(RowMapper<?> rowMapper) {
+        return PROJECTION_SQL_BY_COLUMNS.computeIfAbsent(rowMapper.getColumnLabels(), columns -> {
+            for (String column : columns) {
+                if (!PRODUCT_COLUMN_NAMES.contains(column)) {
+                    throw new DaoOperationException(String.format("Unknown product column: %s", column));
+                }
+            }
+            return new ProjectionSql(String.format("SELECT %s FROM products", String.join(", ", columns)));
+        });
+    }
+
+    /**
+     * Statements of one projection, created once per set of columns
+     */
+    private static final class ProjectionSql {
+        private final String selectAllSql;
+        private final String selectByIdSql;
+
+        private ProjectionSql(String selectAllSql) {
+            this.selectAllSql = selectAllSql;
+            this.selectByIdSql = selectAllSql + " WHERE id = ?";
+        }
+    }
+
+    private List<Product> collectToList(ResultSet resultSet) throws SQLException {
+        BoundRowMapper<Product> rowMapper = PRODUCT_ROW_MAPPER.bind(resultSet);
+        List<Product> products = new ArrayList<>();
+        while (resultSet.next()) {
+            Product product = parseRow(rowMapper);
+            products.add(product);
+        }
+        return products;
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            PreparedStatement selectAllStatement = JdbcUtil.openCursorQuery(connection, SELECT_ALL_SQL, fetchSize);
+            ResultSet resultSet = selectAllStatement.executeQuery();
+            Connection streamConnection = connection;
+            return StreamSupport.stream(new ProductSpliterator(resultSet, PRODUCT_ROW_MAPPER.bind(resultSet)), false)
+                    .onClose(() -> closeStream(streamConnection, selectAllStatement, resultSet));
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new DaoOperationException("Error streaming all products", e);
+        }
+    }
+
+    private void closeStream(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+        try (connection; statement; resultSet) {
+            JdbcUtil.endCursorQuery(connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error closing products stream", e);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // the original exception is more important
+            }
+        }
+    }
+
+    @Override
+    public void parallelScan(int partitions, Consumer<Product> action) {
+        parallelScan(partitions, action, SCAN_EXECUTOR);
+    }
+
+    @Override
+    public void parallelScan(int partitions, Consumer<Product> action, Executor executor) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Number of partitions should be positive");
+        }
+        Objects.requireNonNull(action);
+        Objects.requireNonNull(executor);
+        long[] idRange = findIdRange();
+        if (idRange == null) {
+            return;
+        }
+        List<long[]> idRanges = splitIdRange(idRange[0], idRange[1], partitions);
+        ScanCancellation cancellation = new ScanCancellation();
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+        int submittedPartitions = 0;
+        RuntimeException failure = null;
+        try {
+            for (long[] range : idRanges) {
+                completionService.submit(() -> cancellation.run(() -> scanIdRange(range[0], range[1], action, cancellation)),
+                        null);
+                submittedPartitions++;
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            cancellation.cancel();
+        }
+        failure = awaitPartitions(completionService, submittedPartitions, cancellation, failure);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Waits for all submitted partitions, even after one of them has failed or the caller was interrupted, so no
+     * partition calls the action after {@link #parallelScan(int, Consumer, Executor)} returns. The first failure
+     * cancels other partitions.
+     *
+     * @return the first failure, or {@code null} if all partitions have completed
+     */
+    private RuntimeException awaitPartitions(CompletionService<Void> completionService, int partitions,
+                                             ScanCancellation cancellation, RuntimeException failure) {
+        boolean interrupted = false;
+        int completedPartitions = 0;
+        while (completedPartitions < partitions) {
+            try {
+                completionService.take().get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                            : new DaoOperationException("Error scanning products", e.getCause());
+                    cancellation.cancel();
+                }
+            } catch (InterruptedException e) {
+                if (!interrupted) {
+                    interrupted = true;
+                    failure = new DaoOperationException("Products scan was interrupted", e);
+                    cancellation.cancel();
+                }
+                continue;
+            }
+            completedPartitions++;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return failure;
+    }
+
+    /**
+     * Stops partitions of one scan. Partitions check {@link #isCancelled()} between rows, and running partitions are
+     * interrupted, so blocking calls stop as well.
+     */
+    private static final class ScanCancellation {
+        private final Set<Thread> runningThreads = new HashSet<>();
+        private volatile boolean cancelled;
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            runningThreads.forEach(Thread::interrupt);
+        }
+
+        /**
+         * Runs a partition unless the scan is cancelled
+         */
+        void run(Runnable partition) {
+            Thread thread = Thread.currentThread();
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                runningThreads.add(thread);
+            }
+            try {
+                partition.run();
+            } finally {
+                synchronized (this) {
+                    runningThreads.remove(thread);
+                }
+                if (cancelled) {
+                    // the interrupt of a cancelled partition must not leak into the next task of a pooled thread
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    private long[] findIdRange() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ID_RANGE_SQL)) {
+            resultSet.next();
+            long minId = resultSet.getLong(1);
+            return resultSet.wasNull() ? null : new long[]{minId, resultSet.getLong(2)};
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error finding products id range", e);
+        }
+    }
+
+    /**
+     * Splits {@code [minId, maxId]} into at most {@code partitions} adjacent ranges with inclusive bounds
+     */
+    private static List<long[]> splitIdRange(long minId, long maxId, int partitions) {
+        long rangeWidth = (maxId - minId) / partitions + 1;
+        List<long[]> ranges = new ArrayList<>(partitions);
+        long fromId = minId;
+        while (maxId - fromId >= rangeWidth) {
+            ranges.add(new long[]{fromId, fromId + rangeWidth - 1});
+            fromId += rangeWidth;
+        }
+        ranges.add(new long[]{fromId, maxId});
+        return ranges;
+    }
+
+    private void scanIdRange(long fromId, long toId, Consumer<Product> action, ScanCancellation cancellation) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = JdbcUtil.openCursorQuery(connection, SELECT_BY_ID_RANGE_SQL, fetchSize)) {
+                statement.setLong(1, fromId);
+                statement.setLong(2, toId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    BoundRowMapper<Product> rowMapper = PRODUCT_ROW_MAPPER.bind(resultSet);
+                    while (!cancellation.isCancelled() && resultSet.next()) {
+                        action.accept(parseRow(rowMapper));
+                    }
+                }
+            } finally {
+                JdbcUtil.endCursorQuery(connection);
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error scanning products with id from %d to %d", fromId, toId), e);
+        }
+    }
+
+    /**
+     * Reads products from an open {@link ResultSet} one by one
+     */
+    private class ProductSpliterator extends Spliterators.AbstractSpliterator<Product> {
+        private final ResultSet resultSet;
+        private final BoundRowMapper<Product> rowMapper;
+
+        private ProductSpliterator(ResultSet resultSet, BoundRowMapper<Product> rowMapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Product> action) {
+            try {
+                if (!resultSet.next()) {
+                    return false;
+                }
+            } catch (SQLException e) {
+                throw new DaoOperationException("Error fetching next product", e);
+            }
+            action.accept(parseRow(rowMapper));
+            return true;
+        }
+    }
+
+    private Product parseRow(BoundRowMapper<Product> rowMapper) {
+        try {
+            return rowMapper.mapRow();
+        } catch (SQLException e) {
+            throw new DaoOperationException("Cannot parse row to create product instance", e);
+        }
+    }
+
+    /**
+     * Reads columns in the order they are listed in {@link #PRODUCT_ROW_MAPPER}
+     */
+    private static Product createFromRow(ResultSetRow row) throws SQLException {
+        TrackedProduct product = new TrackedProduct();
+        product.setId(row.getLong(0));
+        product.setName(row.getString(1));
+        product.setProducer(row.getString(2));
+        product.setPrice(row.getBigDecimal(3));
+        product.setExpirationDate(row.getLocalDate(4));
+        product.setCreationTime(row.getLocalDateTime(5));
+        product.setUpdatedTime(row.getLocalDateTime(6));
+        product.markClean();
+        return product;
+    }
+
+    @Override
+    public long count() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(COUNT_SQL)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error counting products", e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> countByProducer() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(COUNT_BY_PRODUCER_SQL)) {
+            Map<String, Long> countByProducer = new LinkedHashMap<>();
+            while (resultSet.next()) {
+                countByProducer.put(resultSet.getString(1), resultSet.getLong(2));
+            }
+            return countByProducer;
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error counting products by producer", e);
+        }
+    }
+
+    @Override
+    public ProductPriceStats getPriceStats() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRICE_STATS_SQL)) {
+            resultSet.next();
+            return parsePriceStats(resultSet, 1);
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error calculating product price stats", e);
+        }
+    }
+
+    @Override
+    public Map<String, ProductPriceStats> getPriceStatsByProducer() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRICE_STATS_BY_PRODUCER_SQL)) {
+            Map<String, ProductPriceStats> statsByProducer = new LinkedHashMap<>();
+            while (resultSet.next()) {
+                statsByProducer.put(resultSet.getString(1), parsePriceStats(resultSet, 2));
+            }
+            return statsByProducer;
+        } catch (SQLException e) {
+            throw new DaoOperationException("Error calculating product price stats by producer", e);
+        }
+    }
+
+    /**
+     * Parses {@code COUNT(*), MIN(price), MAX(price), SUM(price), AVG(price)} columns that start at a given index
+     */
+    private static ProductPriceStats parsePriceStats(ResultSet resultSet, int firstColumnIndex) throws SQLException {
+        return new ProductPriceStats(resultSet.getLong(firstColumnIndex),
+                resultSet.getBigDecimal(firstColumnIndex + 1),
+                resultSet.getBigDecimal(firstColumnIndex + 2),
+                resultSet.getBigDecimal(firstColumnIndex + 3),
+                resultSet.getBigDecimal(firstColumnIndex + 4));
+    }
+
+    @Override
+    public List<Product> findPage(Long afterId, int limit) {
+        Product after = afterId == null ? null : Product.builder().id(afterId).build();
+        return findPage(ProductSortOrder.ID, after, limit);
+    }
+
+    @Override
+    public List<Product> findPage(ProductSortOrder order, Product after, int limit) {
+        Objects.requireNonNull(order);
+        checkLimitIsPositive(limit);
+        try (Connection connection = dataSource.getConnection()) {
+            return findProductPage(order, after, limit, connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error finding page of products after %s", after), e);
+        }
+    }
+
+    private void checkLimitIsPositive(int limit) {
+        if (limit <= 0) {
+            throw new DaoOperationException(String.format("Page limit should be positive, but was %d", limit));
+        }
+    }
+
+    private List<Product> findProductPage(ProductSortOrder order, Product after, int limit, Connection connection)
+            throws SQLException {
+        try (PreparedStatement selectPageStatement = prepareSelectPageStatement(order, after, limit, connection);
+             ResultSet resultSet = selectPageStatement.executeQuery()) {
+            return collectToList(resultSet);
+        }
+    }
+
+    private PreparedStatement prepareSelectPageStatement(ProductSortOrder order, Product after, int limit,
+                                                         Connection connection) throws SQLException {
+        PreparedStatement statement;
+        if (after == null) {
+            String sql = order == ProductSortOrder.ID ? SELECT_FIRST_PAGE_BY_ID_SQL : SELECT_FIRST_PAGE_BY_CREATION_TIME_SQL;
+            statement = connection.prepareStatement(sql);
+            statement.setInt(1, limit);
+        } else if (order == ProductSortOrder.ID) {
+            checkIdIsNotNull(after);
+            statement = connection.prepareStatement(SELECT_PAGE_BY_ID_SQL);
+            statement.setLong(1, after.getId());
+            statement.setInt(2, limit);
+        } else {
+            checkIdIsNotNull(after);
+            Objects.requireNonNull(after.getCreationTime(), "Creation time of the last product on a page is required");
+            statement = connection.prepareStatement(SELECT_PAGE_BY_CREATION_TIME_SQL);
+            statement.setTimestamp(1, Timestamp.valueOf(after.getCreationTime()));
+            statement.setLong(2, after.getId());
+            statement.setInt(3, limit);
+        }
+        return statement;
+    }
+
+    @Override
+    public ProductChanges findChangedSince(ProductChangeWatermark watermark, int limit) {
+        checkLimitIsPositive(limit);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepareSelectChangesStatement(watermark, limit, connection);
+             ResultSet resultSet = statement.executeQuery()) {
+            List<Product> products = collectCommittedChanges(resultSet);
+            ProductChangeWatermark nextWatermark = products.isEmpty() ? watermark
+                    : ProductChangeWatermark.after(products.get(products.size() - 1));
+            return new ProductChanges(products, nextWatermark, products.size() == limit);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error finding products changed since %s", watermark), e);
+        }
+    }
+
+    /**
+     * {@code updated_time} is set when a row is written, but the row becomes visible only when the transaction commits.
+     * So rows that are newer than the database time minus {@link #changeFeedLag} are left for the next call. Otherwise,
+     * the watermark could pass a change that is not committed yet, and readers would never see it.
+     */
+    private List<Product> collectCommittedChanges(ResultSet resultSet) throws SQLException {
+        BoundRowMapper<Product> rowMapper = PRODUCT_ROW_MAPPER.bind(resultSet);
+        List<Product> products = new ArrayList<>();
+        LocalDateTime visibleBefore = null;
+        while (resultSet.next()) {
+            if (visibleBefore == null) {
+                visibleBefore = resultSet.getTimestamp(DATABASE_TIME_COLUMN).toLocalDateTime().minus(changeFeedLag);
+            }
+            Product product = parseRow(rowMapper);
+            if (!product.getUpdatedTime().isBefore(visibleBefore)) {
+                // rows are ordered by updated_time, so the rest are too new as well
+                break;
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    private PreparedStatement prepareSelectChangesStatement(ProductChangeWatermark watermark, int limit,
+                                                            Connection connection) throws SQLException {
+        PreparedStatement statement;
+        if (watermark == null) {
+            statement = connection.prepareStatement(SELECT_FIRST_CHANGES_SQL);
+            statement.setInt(1, limit);
+        } else {
+            statement = connection.prepareStatement(SELECT_CHANGES_SQL);
+            statement.setTimestamp(1, Timestamp.valueOf(watermark.getUpdatedTime()));
+            statement.setLong(2, watermark.getId());
+            statement.setInt(3, limit);
+        }
+        return statement;
     }
 
     @Override
     public Product findOne(Long id) {
-        throw new UnsupportedOperationException("None of these methods will work unless you implement them!");// todo
+        Objects.requireNonNull(id);
+        try (Connection connection = dataSource.getConnection()) {
+            return findProductById(id, connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error finding product by id = %d", id), e);
+        }
+    }
+
+    @Override
+    public <R> R findOneAs(Long id, RowMapper<R> rowMapper) {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(rowMapper);
+        String sql = getProjectionSql(rowMapper).selectByIdSql;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement selectByIdStatement = connection.prepareStatement(sql)) {
+            selectByIdStatement.setLong(1, id);
+            try (ResultSet resultSet = selectByIdStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw productDoesNotExist(id);
+                }
+                return rowMapper.bind(resultSet).mapRow();
+            }
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error finding product by id = %d", id), e);
+        }
+    }
+
+    private Product findProductById(Long id, Connection connection) throws SQLException {
+        try (PreparedStatement selectByIdStatement = connection.prepareStatement(SELECT_BY_ID_SQL)) {
+            selectByIdStatement.setLong(1, id);
+            try (ResultSet resultSet = selectByIdStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return parseRow(PRODUCT_ROW_MAPPER.bind(resultSet));
+                } else {
+                    throw new DaoOperationException(String.format("Product with id = %d does not exist", id));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<Long, Product> findAllById(Collection<Long> ids) {
+        Objects.requireNonNull(ids);
+        List<Long> distinctIds = ids.stream().map(Objects::requireNonNull).distinct().collect(toList());
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            Map<Long, Product> productsById = new HashMap<>(distinctIds.size() * 4 / 3 + 1);
+            for (int from = 0; from < distinctIds.size(); from += MAX_IN_LIST_SIZE) {
+                List<Long> idChunk = distinctIds.subList(from, Math.min(from + MAX_IN_LIST_SIZE, distinctIds.size()));
+                findProductsByIdChunk(idChunk, connection, productsById);
+            }
+            return productsById;
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error finding %d products by id", distinctIds.size()), e);
+        }
+    }
+
+    private void findProductsByIdChunk(List<Long> idChunk, Connection connection, Map<Long, Product> productsById)
+            throws SQLException {
+        try (PreparedStatement selectStatement = prepareInListStatement(SELECT_BY_IDS_SQL_BY_POWER_OF_TWO, idChunk, connection);
+             ResultSet resultSet = selectStatement.executeQuery()) {
+            BoundRowMapper<Product> rowMapper = PRODUCT_ROW_MAPPER.bind(resultSet);
+            while (resultSet.next()) {
+                Product product = parseRow(rowMapper);
+                productsById.put(product.getId(), product);
+            }
+        }
+    }
+
+    /**
+     * Prepares an {@code IN (...)} statement with a number of parameters rounded up to a power of two. Extra
+     * parameters repeat the last id, so the result does not change, while the number of distinct SQL shapes stays
+     * small and the statements can be cached by the driver and by a statement cache.
+     */
+    private PreparedStatement prepareInListStatement(String[] sqlByPowerOfTwo, List<Long> ids, Connection connection)
+            throws SQLException {
+        int paddedSize = paddedInListSize(ids.size());
+        PreparedStatement statement = connection.prepareStatement(sqlByPowerOfTwo[Integer.numberOfTrailingZeros(paddedSize)]);
+        Long lastId = ids.get(ids.size() - 1);
+        for (int i = 0; i < paddedSize; i++) {
+            statement.setLong(i + 1, i < ids.size() ? ids.get(i) : lastId);
+        }
+        return statement;
+    }
+
+    private static int paddedInListSize(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static String[] createInListSql(String sqlTemplate) {
+        String[] sqlByPowerOfTwo = new String[Integer.numberOfTrailingZeros(MAX_IN_LIST_SIZE) + 1];
+        for (int power = 0; power < sqlByPowerOfTwo.length; power++) {
+            String placeholders = String.join(", ", Collections.nCopies(1 << power, "?"));
+            sqlByPowerOfTwo[power] = String.format(sqlTemplate, placeholders);
+        }
+        return sqlByPowerOfTwo;
     }
 
     @Override
     public void update(Product product) {
-        throw new UnsupportedOperationException("None of these methods will work unless you implement them!");// todo
+        Objects.requireNonNull(product);
+        try (Connection connection = dataSource.getConnection()) {
+            updateProduct(product, connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error updating product: %s", product), e);
+        }
+    }
+
+    private void updateProduct(Product product, Connection connection) throws SQLException {
+        checkIdIsNotNull(product);
+        Set<ProductColumn> changedColumns = getChangedColumns(product);
+        if (changedColumns.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement updateStatement = connection.prepareStatement(getUpdateSql(changedColumns))) {
+            bindColumnsAndId(product, changedColumns, updateStatement);
+            executeUpdateById(updateStatement, product.getId());
+        }
+        markUpdated(product);
+    }
+
+    /**
+     * Products loaded by this DAO are tracked, so only columns changed since they were loaded or last updated are
+     * written. Other products are written completely.
+     */
+    private Set<ProductColumn> getChangedColumns(Product product) {
+        return TrackedProduct.changedColumnsOf(product);
+    }
+
+    /**
+     * The database sets {@code updated_time} of an updated row, and reading it back would cost another round trip per
+     * update, so the stale value is cleared instead
+     */
+    private void markUpdated(Product product) {
+        product.setUpdatedTime(null);
+        if (product instanceof TrackedProduct) {
+            ((TrackedProduct) product).markClean();
+        }
+    }
+
+    private static String getUpdateSql(Set<ProductColumn> columns) {
+        return UPDATE_BY_ID_SQL_BY_COLUMNS.computeIfAbsent(columns, ProductDaoImpl::createUpdateSql);
+    }
+
+    private static String createUpdateSql(Set<ProductColumn> columns) {
+        String assignments = columns.stream()
+                .map(column -> column.getColumnName() + " = ?")
+                .collect(joining(", "));
+        return String.format("UPDATE products SET %s, updated_time = now() WHERE id = ?", assignments);
+    }
+
+    /**
+     * Binds values of given columns in their natural order, and then the product id
+     */
+    private void bindColumnsAndId(Product product, Set<ProductColumn> columns, PreparedStatement statement)
+            throws SQLException {
+        int parameterIndex = 1;
+        for (ProductColumn column : columns) {
+            column.bind(product, statement, parameterIndex++);
+        }
+        statement.setLong(parameterIndex, product.getId());
+    }
+
+    private void executeUpdateById(PreparedStatement statement, Long productId) throws SQLException {
+        int rowsAffected = statement.executeUpdate();
+        if (rowsAffected == 0) {
+            throw productDoesNotExist(productId);
+        }
+    }
+
+    private DaoOperationException productDoesNotExist(Long productId) {
+        return new DaoOperationException(String.format("Product with id = %d does not exist", productId));
+    }
+
+    @Override
+    public void updateAll(Collection<Product> products) {
+        Objects.requireNonNull(products);
+        products.forEach(product -> checkIdIsNotNull(Objects.requireNonNull(product)));
+        if (products.isEmpty()) {
+            return;
+        }
+        Map<Set<ProductColumn>, List<Product>> productsByChangedColumns = groupByChangedColumns(products);
+        if (productsByChangedColumns.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            runInTransaction(connection, () -> updateProductBatches(productsByChangedColumns, connection));
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error updating %d products", products.size()), e);
+        }
+        productsByChangedColumns.values().forEach(updatedProducts -> updatedProducts.forEach(this::markUpdated));
+    }
+
+    /**
+     * A JDBC batch executes a single statement, so products are grouped by the set of columns they update. Products
+     * without changes are skipped.
+     */
+    private Map<Set<ProductColumn>, List<Product>> groupByChangedColumns(Collection<Product> products) {
+        Map<Set<ProductColumn>, List<Product>> productsByChangedColumns = new LinkedHashMap<>();
+        for (Product product : products) {
+            Set<ProductColumn> changedColumns = getChangedColumns(product);
+            if (!changedColumns.isEmpty()) {
+                productsByChangedColumns.computeIfAbsent(changedColumns, columns -> new ArrayList<>()).add(product);
+            }
+        }
+        return productsByChangedColumns;
+    }
+
+    private void updateProductBatches(Map<Set<ProductColumn>, List<Product>> productsByChangedColumns,
+                                      Connection connection) throws SQLException {
+        for (Map.Entry<Set<ProductColumn>, List<Product>> entry : productsByChangedColumns.entrySet()) {
+            Set<ProductColumn> columns = entry.getKey();
+            executeBatchesById(getUpdateSql(columns), columns, "updating", entry.getValue(), connection,
+                    (batch, updateCounts) -> checkUpdateCounts(batch, updateCounts, connection));
+        }
+    }
+
+    /**
+     * Executes a statement that takes values of given columns followed by a product id in JDBC batches of
+     * {@code batchSize}
+     *
+     * @param operation     the name of the operation used in error messages
+     * @param resultChecker verifies update counts of each executed batch
+     */
+    private void executeBatchesById(String sql, Set<ProductColumn> columns, String operation,
+                                    Collection<Product> products, Connection connection,
+                                    BatchResultChecker resultChecker) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            List<Product> batch = new ArrayList<>(Math.min(batchSize, products.size()));
+            Iterator<Product> productIterator = products.iterator();
+            while (productIterator.hasNext()) {
+                Product product = productIterator.next();
+                bindColumnsAndId(product, columns, statement);
+                statement.addBatch();
+                batch.add(product);
+                if (batch.size() == batchSize || !productIterator.hasNext()) {
+                    resultChecker.check(batch, executeBatch(statement, operation, batch));
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private int[] executeBatch(PreparedStatement statement, String operation, List<Product> batch) throws SQLException {
+        try {
+            return statement.executeBatch();
+        } catch (BatchUpdateException e) {
+            int failedIndex = Math.min(findFailedBatchIndex(e.getUpdateCounts()), batch.size() - 1);
+            Product invalidProduct = batch.get(failedIndex);
+            throw new DaoOperationException(String.format("Error %s product: %s", operation, invalidProduct), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchResultChecker {
+        void check(List<Product> batch, int[] updateCounts) throws SQLException;
+    }
+
+    private void checkUpdateCounts(List<Product> batch, int[] updateCounts, Connection connection) throws SQLException {
+        boolean countsAreKnown = true;
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                throw productDoesNotExist(batch.get(i).getId());
+            }
+            countsAreKnown &= updateCounts[i] != Statement.SUCCESS_NO_INFO;
+        }
+        if (!countsAreKnown) {
+            // the driver doesn't report counts, so missing rows are found with a query
+            List<Long> ids = batch.stream().map(Product::getId).distinct().collect(toList());
+            checkAllIdsExist(ids, connection);
+        }
+    }
+
+    private void checkAllIdsExist(List<Long> ids, Connection connection) throws SQLException {
+        Set<Long> existingIds = findExistingIds(ids, connection);
+        for (Long id : ids) {
+            if (!existingIds.contains(id)) {
+                throw productDoesNotExist(id);
+            }
+        }
+    }
+
+    private Set<Long> findExistingIds(List<Long> ids, Connection connection) throws SQLException {
+        Set<Long> existingIds = new HashSet<>(ids.size() * 4 / 3 + 1);
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST_SIZE) {
+            List<Long> idChunk = ids.subList(from, Math.min(from + MAX_IN_LIST_SIZE, ids.size()));
+            try (PreparedStatement selectStatement = prepareInListStatement(SELECT_IDS_BY_IDS_SQL_BY_POWER_OF_TWO, idChunk, connection);
+                 ResultSet resultSet = selectStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    existingIds.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return existingIds;
     }
 
     @Override
     public void remove(Product product) {
-        throw new UnsupportedOperationException("None of these methods will work unless you implement them!");// todo
+        Objects.requireNonNull(product);
+        try (Connection connection = dataSource.getConnection()) {
+            removeProduct(product, connection);
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error removing product by id = %d", product.getId()), e);
+        }
     }
 
+    private void removeProduct(Product product, Connection connection) throws SQLException {
+        checkIdIsNotNull(product);
+        try (PreparedStatement removeStatement = connection.prepareStatement(REMOVE_BY_ID_SQL)) {
+            removeStatement.setLong(1, product.getId());
+            executeUpdateById(removeStatement, product.getId());
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<Product> products) {
+        Objects.requireNonNull(products);
+        products.forEach(product -> checkIdIsNotNull(Objects.requireNonNull(product)));
+        List<Long> ids = products.stream().map(Product::getId).distinct().collect(toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            runInTransaction(connection, () -> removeProductsByIdChunks(ids, connection));
+        } catch (SQLException e) {
+            throw new DaoOperationException(String.format("Error removing %d products", ids.size()), e);
+        }
+    }
+
+    private void removeProductsByIdChunks(List<Long> ids, Connection connection) throws SQLException {
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST_SIZE) {
+            List<Long> idChunk = ids.subList(from, Math.min(from + MAX_IN_LIST_SIZE, ids.size()));
+            int rowsDeleted;
+            try (PreparedStatement removeStatement = prepareInListStatement(REMOVE_BY_IDS_SQL_BY_POWER_OF_TWO, idChunk, connection)) {
+                rowsDeleted = removeStatement.executeUpdate();
+            }
+            if (rowsDeleted != idChunk.size()) {
+                // rows of this chunk are already deleted, so the missing one can only be found after a rollback
+                connection.rollback();
+                checkAllIdsExist(idChunk, connection);
+                throw new DaoOperationException(String.format("Expected to remove %d products, but removed %d",
+                        idChunk.size(), rowsDeleted));
+            }
+        }
+    }
+
+    /**
+     * Runs the action in a transaction, and rolls it back if the action fails
+     */
+    private void runInTransaction(Connection connection, TransactionalAction action) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            action.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TransactionalAction {
+        void run() throws SQLException;
+    }
+
+    private void checkIdIsNotNull(Product product) {
+        if (product.getId() == null) {
+            throw new DaoOperationException("Cannot find a product without ID");
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.bobocode.dao;
+
+import com.bobocode.util.SqlDialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ProductIndexes} creates secondary indexes of the {@code products} table used by {@link ProductCriteria}
+ * filters, {@link ProductSortOrder#CREATION_TIME} pagination and the
+ * {@link ProductDao#findChangedSince(ProductChangeWatermark, int)} change feed. Statements use {@code IF NOT EXISTS}, so indexes can
+ * be created on every start of an application.
+ * <p>
+ * Keyset pages are selected with row-value predicates like {@code WHERE (creation_time, id) > (?, ?)}, and the
+ * {@code (creation_time, id)} and {@code (updated_time, id)} indexes let the database seek the start of any page and
+ * read it in index order, so deep pages cost the same as the first one.
+ */
+public class ProductIndexes {
+    private static final List<String> COMMON_INDEX_SQL = List.of(
+            "CREATE INDEX IF NOT EXISTS products_producer_price_idx ON products (producer, price)",
+            "CREATE INDEX IF NOT EXISTS products_price_idx ON products (price)",
+            "CREATE INDEX IF NOT EXISTS products_expiration_date_idx ON products (expiration_date)",
+            "CREATE INDEX IF NOT EXISTS products_creation_time_id_idx ON products (creation_time, id)",
+            "CREATE INDEX IF NOT EXISTS products_updated_time_id_idx ON products (updated_time, id)");
+    private static final String NAME_INDEX_SQL = "CREATE INDEX IF NOT EXISTS products_name_idx ON products (name)";
+    /**
+     * A default PostgreSQL index cannot serve {@code LIKE 'prefix%'} unless the database uses {@code C} collation
+     */
+    private static final String POSTGRESQL_NAME_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS products_name_idx ON products (name varchar_pattern_ops)";
+
+    private ProductIndexes() {
+    }
+
+    /**
+     * Returns {@code CREATE INDEX} statements for a given database
+     *
+     * @param dialect SQL dialect of the database
+     * @return index DDL statements
+     */
+    public static List<String> createIndexSql(SqlDialect dialect) {
+        List<String> indexSql = new ArrayList<>(COMMON_INDEX_SQL);
+        indexSql.add(dialect == SqlDialect.POSTGRESQL ? POSTGRESQL_NAME_INDEX_SQL : NAME_INDEX_SQL);
+        return indexSql;
+    }
+
+    /**
+     * Creates missing indexes of the {@code products} table
+     *
+     * @param dataSource a data source of the database that contains {@code products} table
+     */
+    public static void createIndexes(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : createIndexSql(SqlDialect.of(connection))) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.ProductSummary;
+import com.bobocode.util.mapping.RowMapper;
+
+/**
+ * {@link ProductProjections} holds row mappers for {@link ProductDao#findAllAs(RowMapper)} and
+ * {@link ProductDao#findOneAs(Long, RowMapper)}. A custom projection is created with
+ * {@link RowMapper#of(com.bobocode.util.mapping.RowReader, String...)} using {@code products} column names.
+ */
+public final class ProductProjections {
+    public static final RowMapper<ProductSummary> SUMMARY = RowMapper.of(
+            row -> new ProductSummary(row.getLong(0), row.getString(1), row.getBigDecimal(2)),
+            "id", "name", "price");
+
+    private ProductProjections() {
+    }
+}
@@ -0,0 +1,18 @@
+package com.bobocode.dao;
+
+/**
+ * {@link ProductSortOrder} defines the order of products in keyset pagination. Each order ends with {@code id}, so
+ * the position of a product is always unique, and a page can be found by seeking past the last product of the
+ * previous page.
+ */
+public enum ProductSortOrder {
+    /**
+     * Sorts by primary key and uses {@code products_pk} index
+     */
+    ID,
+    /**
+     * Sorts by creation time, and then by id. Create the {@code (creation_time, id)} index with {@link ProductIndexes}
+     * to seek pages without sorting the table
+     */
+    CREATION_TIME
+}
@@ -0,0 +1,39 @@
+package com.bobocode.dao;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * {@link PurgeConfig} holds the settings of {@link ExpiredProductPurger}. Use {@link PurgeConfig#builder()} to override
+ * any of the default values.
+ * <p>
+ * {@link #chunkSize} bounds how many rows one {@code DELETE} locks, and {@link #pauseBetweenChunks} leaves the database
+ * time to serve other queries, so a large purge runs longer instead of slowing down online traffic.
+ */
+@Getter
+@Builder
+@ToString
+public class PurgeConfig {
+    /**
+     * Max number of products deleted by one statement
+     */
+    @Builder.Default
+    private int chunkSize = 1000;
+    /**
+     * Delay before the next chunk when there are more expired products
+     */
+    @Builder.Default
+    private Duration pauseBetweenChunks = Duration.ofMillis(100);
+    /**
+     * Delay before the next purge when all expired products are deleted
+     */
+    @Builder.Default
+    private Duration purgeInterval = Duration.ofMinutes(10);
+
+    public static PurgeConfig defaultConfig() {
+        return PurgeConfig.builder().build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.bobocode.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * {@link PurgeStats} is a point-in-time copy of {@link ExpiredProductPurger} counters
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class PurgeStats {
+    /**
+     * Total number of deleted products
+     */
+    private final long deletedCount;
+    /**
+     * Total number of executed {@code DELETE} statements
+     */
+    private final long chunkCount;
+    /**
+     * Deleted products per second of {@code DELETE} execution time, pauses excluded
+     */
+    private final double rowsPerSecond;
+    /**
+     * Time since the purger last found no expired products, or since it was started. It stays close to
+     * {@link PurgeConfig#getPurgeInterval()} while the purger keeps up, and grows when products expire faster than they
+     * are deleted or purges fail.
+     */
+    private final Duration lag;
+}
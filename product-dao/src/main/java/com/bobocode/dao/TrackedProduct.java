@@ -0,0 +1,92 @@
+package com.bobocode.dao;
+
+import com.bobocode.model.Product;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link TrackedProduct} is a {@link Product} loaded by {@link ProductDaoImpl}. It keeps a snapshot of the values it
+ * was loaded with, so an update can write only the columns that were changed since then. It is equal to a plain
+ * {@link Product} with the same id, so callers don't see the difference.
+ */
+class TrackedProduct extends Product {
+    private static final Set<ProductColumn> ALL_COLUMNS = Collections.unmodifiableSet(EnumSet.allOf(ProductColumn.class));
+    private final Product snapshot = new Product();
+
+    /**
+     * @return columns changed since a tracked product was loaded, or all columns for other products
+     */
+    static Set<ProductColumn> changedColumnsOf(Product product) {
+        return product instanceof TrackedProduct ? ((TrackedProduct) product).getChangedColumns() : ALL_COLUMNS;
+    }
+
+    /**
+     * Copies a product. A copy of a tracked product keeps its snapshot, so it writes the same columns.
+     */
+    static Product copyOf(Product product) {
+        if (product instanceof TrackedProduct) {
+            return ((TrackedProduct) product).copy();
+        }
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .producer(product.getProducer())
+                .price(product.getPrice())
+                .expirationDate(product.getExpirationDate())
+                .creationTime(product.getCreationTime())
+                .updatedTime(product.getUpdatedTime())
+                .build();
+    }
+
+    /**
+     * Remembers the current values as stored in the database
+     */
+    void markClean() {
+        snapshot.setId(getId());
+        snapshot.setName(getName());
+        snapshot.setProducer(getProducer());
+        snapshot.setPrice(getPrice());
+        snapshot.setExpirationDate(getExpirationDate());
+    }
+
+    /**
+     * @return columns whose values differ from the snapshot, or all columns if the id was changed, because
+     * the snapshot then describes another row
+     */
+    Set<ProductColumn> getChangedColumns() {
+        if (!Objects.equals(getId(), snapshot.getId())) {
+            return ALL_COLUMNS;
+        }
+        EnumSet<ProductColumn> changedColumns = EnumSet.noneOf(ProductColumn.class);
+        for (ProductColumn column : ProductColumn.values()) {
+            if (!column.valueEquals(this, snapshot)) {
+                changedColumns.add(column);
+            }
+        }
+        return changedColumns;
+    }
+
+    /**
+     * Copies both current values and the snapshot
+     */
+    TrackedProduct copy() {
+        TrackedProduct copy = new TrackedProduct();
+        copy.setId(snapshot.getId());
+        copy.setName(snapshot.getName());
+        copy.setProducer(snapshot.getProducer());
+        copy.setPrice(snapshot.getPrice());
+        copy.setExpirationDate(snapshot.getExpirationDate());
+        copy.markClean();
+        copy.setId(getId());
+        copy.setName(getName());
+        copy.setProducer(getProducer());
+        copy.setPrice(getPrice());
+        copy.setExpirationDate(getExpirationDate());
+        copy.setCreationTime(getCreationTime());
+        copy.setUpdatedTime(getUpdatedTime());
+        return copy;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bobocode.dao;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * {@link WriteBehindConfig} holds the settings of {@link WriteBehindProductDao}. Use {@link WriteBehindConfig#builder()}
+ * to override any of the default values.
+ * <p>
+ * Buffered writes are lost if the process crashes, so {@link #maxBufferSize} and {@link #flushInterval} bound both
+ * the number of writes at risk and how long they wait.
+ */
+@Getter
+@Builder
+@ToString
+public class WriteBehindConfig {
+    /**
+     * A number of buffered writes that triggers a background flush
+     */
+    @Builder.Default
+    private int flushThreshold = 500;
+    /**
+     * Max number of buffered writes. A thread that fills the buffer flushes it itself before returning
+     */
+    @Builder.Default
+    private int maxBufferSize = 5000;
+    /**
+     * Max time a write stays in the buffer before a background flush
+     */
+    @Builder.Default
+    private Duration flushInterval = Duration.ofMillis(200);
+    /**
+     * Max number of flushes that try to write a product. A write that fails is buffered again until it runs out of
+     * attempts, and then it's dropped and reported with an exception
+     */
+    @Builder.Default
+    private int maxWriteAttempts = 5;
+    /**
+     * Receives failures of flushes that are triggered by the flush threshold, the flush interval, or a full buffer.
+     * It's called on the thread that flushed the buffer, so it should return quickly
+     */
+    @Builder.Default
+    private Consumer<RuntimeException> failureListener = failure -> {
+    };
+
+    public static WriteBehindConfig defaultConfig() {
+        return WriteBehindConfig.builder().build();
+    }
+}
@@ -0,0 +1,475 @@
+package com.bobocode.dao;
+
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import com.bobocode.model.ProductPriceStats;
+import com.bobocode.util.mapping.RowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link WriteBehindProductDao} buffers {@link #save(Product)} and {@link #update(Product)} calls, and writes them to
+ * another {@link ProductDao} with {@link ProductDao#saveAll(Collection)} and {@link ProductDao#updateAll(Collection)}.
+ * Many small writes from concurrent threads turn into a few JDBC batches.
+ * <p>
+ * The buffer holds copies of the products, so callers can keep changing their instances, and buffered writes never
+ * modify them. New products wait in a lock-free queue, and {@link #saveAsync(Product)} returns a future of the id
+ * generated when the buffer is flushed. Updates are kept in
+ * a concurrent map by id, so repeated updates of the same product are coalesced into one row update. The buffer is
+ * flushed in the background when it reaches {@link WriteBehindConfig#getFlushThreshold()} writes or when
+ * {@link WriteBehindConfig#getFlushInterval()} passes, and synchronously by {@link #flush()}. A thread that fills the
+ * buffer up to {@link WriteBehindConfig#getMaxBufferSize()} flushes it itself, which slows writers down to the speed
+ * of the database.
+ * <p>
+ * {@link #findOne(Long)} returns a buffered update if there is one. Other reads go to the database and see buffered
+ * writes only after they are flushed. Other writes flush the buffer first, so they are applied in the call order.
+ * Call {@link #close()} to flush the remaining writes and stop the background thread.
+ * <p>
+ * Writes that fail are buffered again and retried by the next flush, up to {@link WriteBehindConfig#getMaxWriteAttempts()}
+ * times, so a short database outage does not lose them. A save that runs out of attempts completes its future
+ * exceptionally. Failures of flushes that are not called by {@link #flush()} are passed to
+ * {@link WriteBehindConfig#getFailureListener()}, and the first of them is rethrown by the next {@link #flush()} or
+ * {@link #close()}. {@link #save(Product)} and {@link #update(Product)} always buffer the write and never throw
+ * failures of other writes.
+ */
+public class WriteBehindProductDao implements ProductDao, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindProductDao.class);
+    private final ProductDao productDao;
+    private final WriteBehindConfig config;
+    private final Queue<PendingSave> pendingSaves = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Product> pendingUpdates = new ConcurrentHashMap<>();
+    private final AtomicInteger bufferSize = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Lock flushLock = new ReentrantLock();
+    private final Map<Product, Integer> failedAttempts = new IdentityHashMap<>(); // guarded by flushLock
+    private final AtomicReference<RuntimeException> backgroundFailure = new AtomicReference<>();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    public WriteBehindProductDao(ProductDao productDao) {
+        this(productDao, WriteBehindConfig.defaultConfig());
+    }
+
+    public WriteBehindProductDao(ProductDao productDao, WriteBehindConfig config) {
+        if (config.getFlushThreshold() <= 0 || config.getMaxBufferSize() < config.getFlushThreshold()) {
+            throw new IllegalArgumentException("Flush threshold should be positive and not greater than max buffer size");
+        }
+        if (config.getFlushInterval().isNegative() || config.getFlushInterval().isZero()) {
+            throw new IllegalArgumentException("Flush interval should be positive");
+        }
+        if (config.getMaxWriteAttempts() <= 0) {
+            throw new IllegalArgumentException("Max write attempts should be positive");
+        }
+        this.productDao = Objects.requireNonNull(productDao);
+        this.config = config;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-product-dao-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushIntervalMillis = config.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushAndKeepFailure, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers a copy of a new product. Unlike {@link ProductDao#save(Product)}, it doesn't set the id of the given
+     * instance, use {@link #saveAsync(Product)} to get it.
+     */
+    @Override
+    public void save(Product product) {
+        saveAsync(product);
+    }
+
+    /**
+     * Buffers a copy of a new product
+     *
+     * @return future of the generated id, completed when the product is written, or completed exceptionally with
+     * {@link DaoOperationException} when the product runs out of write attempts
+     */
+    public CompletableFuture<Long> saveAsync(Product product) {
+        Objects.requireNonNull(product);
+        checkOpen();
+        PendingSave pendingSave = new PendingSave(product);
+        pendingSaves.add(pendingSave);
+        onWriteBuffered();
+        return pendingSave.generatedId;
+    }
+
+    /**
+     * Buffers a copy of an update. If the product already has a buffered update, fields changed by this update
+     * overwrite the buffered ones.
+     */
+    @Override
+    public void update(Product product) {
+        Objects.requireNonNull(product);
+        checkOpen();
+        if (product.getId() == null) {
+            throw new DaoOperationException("Cannot find a product without ID");
+        }
+        AtomicBoolean added = new AtomicBoolean();
+        pendingUpdates.compute(product.getId(), (id, pendingProduct) -> {
+            if (pendingProduct == null) {
+                added.set(true);
+                return TrackedProduct.copyOf(product);
+            }
+            for (ProductColumn column : TrackedProduct.changedColumnsOf(product)) {
+                column.copyValue(product, pendingProduct);
+            }
+            return pendingProduct;
+        });
+        if (added.get()) {
+            onWriteBuffered();
+        }
+    }
+
+    private void onWriteBuffered() {
+        int size = bufferSize.incrementAndGet();
+        if (size >= config.getMaxBufferSize()) {
+            // the caller's write is already buffered, and failures of other writes are not its business
+            flushAndKeepFailure();
+        } else if (size >= config.getFlushThreshold() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushAndKeepFailure);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new DaoOperationException("Write-behind product DAO is closed");
+        }
+    }
+
+    private void throwBackgroundFailure() {
+        RuntimeException failure = backgroundFailure.getAndSet(null);
+        if (failure != null) {
+            throw new DaoOperationException("Flush of buffered products failed", failure);
+        }
+    }
+
+    /**
+     * Writes all buffered products to the database, and waits until it's done. Writes that fail in a batch are
+     * retried one by one, so a single invalid product does not prevent others from being stored. Products that still
+     * fail are buffered again for the next flush, unless they have run out of attempts.
+     *
+     * @throws DaoOperationException if some products cannot be stored, or another flush has failed since the last
+     *                               call
+     */
+    public void flush() {
+        try {
+            flushBuffer();
+        } catch (RuntimeException e) {
+            RuntimeException failure = backgroundFailure.getAndSet(null);
+            if (failure != null) {
+                e.addSuppressed(failure);
+            }
+            throw e;
+        }
+        throwBackgroundFailure();
+    }
+
+    private void flushBuffer() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<Product> saves = new ArrayList<>();
+            PendingSave pendingSave;
+            while ((pendingSave = pendingSaves.poll()) != null) {
+                saves.add(pendingSave);
+            }
+            List<Product> updates = new ArrayList<>(pendingUpdates.size());
+            for (Long id : pendingUpdates.keySet()) {
+                Product product = pendingUpdates.remove(id);
+                if (product != null) {
+                    updates.add(product);
+                }
+            }
+            bufferSize.addAndGet(-(saves.size() + updates.size()));
+            List<RuntimeException> failures = new ArrayList<>();
+            int retriedCount = write(saves, productDao::saveAll, productDao::save, this::rebufferSave, failures);
+            retriedCount += write(updates, productDao::updateAll, productDao::update, this::rebufferUpdate, failures);
+            if (!failures.isEmpty()) {
+                DaoOperationException exception = new DaoOperationException(String.format(
+                        "Cannot write %d of %d buffered products, %d of them will be retried", failures.size(),
+                        saves.size() + updates.size(), retriedCount), failures.get(0));
+                failures.stream().skip(1).forEach(exception::addSuppressed);
+                throw exception;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of failed products that were buffered again
+     */
+    private int write(List<Product> products, Consumer<Collection<Product>> batchWriter, Consumer<Product> writer,
+                      Consumer<Product> rebuffer, List<RuntimeException> failures) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+        try {
+            batchWriter.accept(products);
+            if (!failedAttempts.isEmpty()) {
+                products.forEach(failedAttempts::remove);
+            }
+            products.forEach(WriteBehindProductDao::onWritten);
+            return 0;
+        } catch (RuntimeException batchFailure) {
+            int retriedCount = 0;
+            for (Product product : products) {
+                try {
+                    writer.accept(product);
+                    failedAttempts.remove(product);
+                    onWritten(product);
+                } catch (RuntimeException e) {
+                    failures.add(e);
+                    if (failedAttempts.merge(product, 1, Integer::sum) < config.getMaxWriteAttempts()) {
+                        rebuffer.accept(product);
+                        retriedCount++;
+                    } else {
+                        failedAttempts.remove(product);
+                        onDropped(product, e);
+                    }
+                }
+            }
+            return retriedCount;
+        }
+    }
+
+    private static void onWritten(Product product) {
+        if (product instanceof PendingSave) {
+            ((PendingSave) product).generatedId.complete(product.getId());
+        }
+    }
+
+    private static void onDropped(Product product, RuntimeException failure) {
+        if (product instanceof PendingSave) {
+            ((PendingSave) product).generatedId.completeExceptionally(new DaoOperationException(
+                    "Buffered product is dropped after max write attempts", failure));
+        }
+    }
+
+    private void rebufferSave(Product product) {
+        pendingSaves.add((PendingSave) product);
+        bufferSize.incrementAndGet();
+    }
+
+    private void rebufferUpdate(Product product) {
+        AtomicBoolean added = new AtomicBoolean();
+        pendingUpdates.compute(product.getId(), (id, newerProduct) -> {
+            if (newerProduct == null) {
+                added.set(true);
+                return product;
+            }
+            // changes buffered while the failed product was being written win
+            for (ProductColumn column : TrackedProduct.changedColumnsOf(newerProduct)) {
+                column.copyValue(newerProduct, product);
+            }
+            return product;
+        });
+        if (added.get()) {
+            bufferSize.incrementAndGet();
+        }
+    }
+
+    private void flushAndKeepFailure() {
+        try {
+            flushBuffer();
+        } catch (RuntimeException e) {
+            log.error("Error flushing buffered products", e);
+            // the first failure is kept until flush() or close() reports it, later ones are only logged
+            backgroundFailure.compareAndSet(null, e);
+            notifyFailureListener(e);
+        }
+    }
+
+    private void notifyFailureListener(RuntimeException failure) {
+        try {
+            config.getFailureListener().accept(failure);
+        } catch (RuntimeException e) {
+            log.error("Write-behind failure listener failed", e);
+        }
+    }
+
+    /**
+     * @return number of buffered writes
+     */
+    public int getBufferSize() {
+        return bufferSize.get();
+    }
+
+    /**
+     * Stops background flushing and writes all buffered products
+     *
+     * @throws DaoOperationException if some products cannot be stored, or another flush has failed since the last
+     *                               call
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(config.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public void saveAll(Collection<Product> products) {
+        flush();
+        productDao.saveAll(products);
+    }
+
+    @Override
+    public void upsert(Product product) {
+        flush();
+        productDao.upsert(product);
+    }
+
+    @Override
+    public void upsertAll(Collection<Product> products) {
+        flush();
+        productDao.upsertAll(products);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return productDao.findAll();
+    }
+
+    @Override
+    public List<Product> findAll(ProductCriteria criteria) {
+        return productDao.findAll(criteria);
+    }
+
+    @Override
+    public Stream<Product> streamAll() {
+        return productDao.streamAll();
+    }
+
+    @Override
+    public void parallelScan(int partitions, Consumer<Product> action) {
+        productDao.parallelScan(partitions, action);
+    }
+
+    @Override
+    public void parallelScan(int partitions, Consumer<Product> action, Executor executor) {
+        productDao.parallelScan(partitions, action, executor);
+    }
+
+    @Override
+    public <R> List<R> findAllAs(RowMapper<R> rowMapper) {
+        return productDao.findAllAs(rowMapper);
+    }
+
+    @Override
+    public <R> R findOneAs(Long id, RowMapper<R> rowMapper) {
+        return productDao.findOneAs(id, rowMapper);
+    }
+
+    @Override
+    public long count() {
+        return productDao.count();
+    }
+
+    @Override
+    public Map<String, Long> countByProducer() {
+        return productDao.countByProducer();
+    }
+
+    @Override
+    public ProductPriceStats getPriceStats() {
+        return productDao.getPriceStats();
+    }
+
+    @Override
+    public Map<String, ProductPriceStats> getPriceStatsByProducer() {
+        return productDao.getPriceStatsByProducer();
+    }
+
+    @Override
+    public List<Product> findPage(Long afterId, int limit) {
+        return productDao.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Product> findPage(ProductSortOrder order, Product after, int limit) {
+        return productDao.findPage(order, after, limit);
+    }
+
+    @Override
+    public ProductChanges findChangedSince(ProductChangeWatermark watermark, int limit) {
+        return productDao.findChangedSince(watermark, limit);
+    }
+
+    @Override
+    public Product findOne(Long id) {
+        Objects.requireNonNull(id);
+        // copying inside computeIfPresent doesn't race with a concurrent update of the same buffered product
+        AtomicReference<Product> pendingProduct = new AtomicReference<>();
+        pendingUpdates.computeIfPresent(id, (productId, product) -> {
+            pendingProduct.set(TrackedProduct.copyOf(product));
+            return product;
+        });
+        return pendingProduct.get() != null ? pendingProduct.get() : productDao.findOne(id);
+    }
+
+    @Override
+    public Map<Long, Product> findAllById(Collection<Long> ids) {
+        return productDao.findAllById(ids);
+    }
+
+    @Override
+    public void updateAll(Collection<Product> products) {
+        flush();
+        productDao.updateAll(products);
+    }
+
+    @Override
+    public void remove(Product product) {
+        flush();
+        productDao.remove(product);
+    }
+
+    @Override
+    public void removeAll(Collection<Product> products) {
+        flush();
+        productDao.removeAll(products);
+    }
+
+    /**
+     * {@link PendingSave} is a buffered copy of a new product, with the future of its id
+     */
+    private static class PendingSave extends Product {
+        private final CompletableFuture<Long> generatedId = new CompletableFuture<>();
+
+        private PendingSave(Product product) {
+            super(product.getId(), product.getName(), product.getProducer(), product.getPrice(),
+                    product.getExpirationDate(), product.getCreationTime(), product.getUpdatedTime());
+        }
+    }
+}
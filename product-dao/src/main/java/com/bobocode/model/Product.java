@@ -20,4 +20,5 @@ public class Product {
     private BigDecimal price;
     private LocalDate expirationDate;
     private LocalDateTime creationTime;
+    private LocalDateTime updatedTime;
 }
@@ -0,0 +1,25 @@
+package com.bobocode.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link ProductPriceStats} holds price aggregates of a group of products calculated by the database. Products without
+ * price are counted by {@code productCount}, but are not included into other aggregates, which are {@code null} when
+ * no product has a price.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ProductPriceStats {
+    private final long productCount;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final BigDecimal totalPrice;
+    private final BigDecimal averagePrice;
+}
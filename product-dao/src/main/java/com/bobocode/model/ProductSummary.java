@@ -0,0 +1,21 @@
+package com.bobocode.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link ProductSummary} is a read-only projection of {@link Product} for product listings
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+@ToString
+public class ProductSummary {
+    private final Long id;
+    private final String name;
+    private final BigDecimal price;
+}
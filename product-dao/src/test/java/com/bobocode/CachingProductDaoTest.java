@@ -0,0 +1,128 @@
+package com.bobocode;
+
+import com.bobocode.dao.CachingProductDao;
+import com.bobocode.dao.ProductCacheStats;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachingProductDaoTest {
+    private static ProductDao productDao;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        DataSource dataSource = ProductTestDatabase.create("caching_db");
+        productDao = new ProductDaoImpl(dataSource);
+    }
+
+    private Product saveTestProduct(String name) {
+        Product product = Product.builder()
+                .name(name)
+                .producer("Test producer")
+                .price(BigDecimal.TEN)
+                .expirationDate(LocalDate.now().plusYears(1))
+                .build();
+        productDao.save(product);
+        return product;
+    }
+
+    @Test
+    void testFindOneIsCached() {
+        CachingProductDao cachingProductDao = new CachingProductDao(productDao, 100);
+        Product product = saveTestProduct("Cached");
+
+        Product firstRead = cachingProductDao.findOne(product.getId());
+        firstRead.setName("Modified by caller");
+        Product secondRead = cachingProductDao.findOne(product.getId());
+
+        ProductCacheStats stats = cachingProductDao.getStats();
+        assertEquals("Cached", secondRead.getName());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void testUpdateAndRemoveInvalidateCache() {
+        CachingProductDao cachingProductDao = new CachingProductDao(productDao, 100);
+        Product product = saveTestProduct("Before update");
+        cachingProductDao.findOne(product.getId());
+
+        product.setName("After update");
+        cachingProductDao.update(product);
+        assertEquals("After update", cachingProductDao.findOne(product.getId()).getName());
+
+        cachingProductDao.remove(product);
+        assertThrows(DaoOperationException.class, () -> cachingProductDao.findOne(product.getId()));
+        assertEquals(0, cachingProductDao.getStats().getHitCount());
+    }
+
+    @Test
+    void testFindAllByIdUsesCachedProducts() {
+        CachingProductDao cachingProductDao = new CachingProductDao(productDao, 100);
+        Product first = saveTestProduct("First");
+        Product second = saveTestProduct("Second");
+        cachingProductDao.findOne(first.getId());
+
+        Map<Long, Product> products = cachingProductDao.findAllById(Arrays.asList(first.getId(), second.getId()));
+        cachingProductDao.findOne(second.getId());
+
+        ProductCacheStats stats = cachingProductDao.getStats();
+        assertEquals(2, products.size());
+        assertEquals("Second", products.get(second.getId()).getName());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedProductsAreEvicted() {
+        CachingProductDao cachingProductDao = new CachingProductDao(productDao, 10);
+        for (int i = 0; i < 100; i++) {
+            cachingProductDao.findOne(saveTestProduct("Product " + i).getId());
+        }
+
+        ProductCacheStats stats = cachingProductDao.getStats();
+        assertTrue(stats.getSize() <= 10);
+        assertEquals(100 - stats.getSize(), stats.getEvictionCount());
+    }
+
+    @Test
+    void testSmallCacheDoesNotExceedMaxSize() {
+        CachingProductDao cachingProductDao = new CachingProductDao(productDao, 3);
+        for (int i = 0; i < 50; i++) {
+            cachingProductDao.findOne(saveTestProduct("Small cache product " + i).getId());
+        }
+
+        assertTrue(cachingProductDao.getStats().getSize() <= 3);
+    }
+
+    @Test
+    void testExpiredProductIsLoadedAgain() throws InterruptedException {
+        CachingProductDao cachingProductDao = new CachingProductDao(productDao, 100, Duration.ofMillis(50));
+        Product product = saveTestProduct("Expiring");
+
+        cachingProductDao.findOne(product.getId());
+        Thread.sleep(100);
+        cachingProductDao.findOne(product.getId());
+
+        ProductCacheStats stats = cachingProductDao.getStats();
+        assertEquals(0, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+    }
+}
@@ -0,0 +1,78 @@
+package com.bobocode;
+
+import com.bobocode.dao.ExpiredProductPurger;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.PurgeConfig;
+import com.bobocode.dao.PurgeStats;
+import com.bobocode.model.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExpiredProductPurgerTest {
+    private static DataSource dataSource;
+    private static ProductDao productDao;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        dataSource = ProductTestDatabase.create("purger_db");
+        productDao = new ProductDaoImpl(dataSource);
+    }
+
+    private List<Product> createTestProducts(int count, LocalDate expirationDate) {
+        return Stream.generate(() -> Product.builder()
+                .name("Purge test")
+                .producer("Test producer")
+                .price(BigDecimal.TEN)
+                .expirationDate(expirationDate)
+                .build())
+                .limit(count)
+                .collect(toList());
+    }
+
+    @Test
+    void testExpiredProductsArePurgedInChunks() throws InterruptedException {
+        productDao.saveAll(createTestProducts(25, LocalDate.now().minusDays(1)));
+        productDao.saveAll(createTestProducts(5, LocalDate.now()));
+        PurgeConfig config = PurgeConfig.builder()
+                .chunkSize(10)
+                .pauseBetweenChunks(Duration.ofMillis(10))
+                .purgeInterval(Duration.ofMillis(50))
+                .build();
+
+        PurgeStats stats;
+        try (ExpiredProductPurger purger = new ExpiredProductPurger(dataSource, config)) {
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            do {
+                Thread.sleep(20);
+                stats = purger.getStats();
+            } while (stats.getDeletedCount() < 25 && System.nanoTime() < deadline);
+        }
+
+        assertEquals(25, stats.getDeletedCount());
+        assertTrue(stats.getChunkCount() >= 3);
+        assertTrue(stats.getRowsPerSecond() > 0);
+        assertEquals(5, productDao.count());
+        productDao.findAll().forEach(product -> assertEquals(LocalDate.now(), product.getExpirationDate()));
+    }
+
+    @Test
+    void testInvalidConfigIsRejected() {
+        PurgeConfig config = PurgeConfig.builder().chunkSize(0).build();
+
+        assertThrows(IllegalArgumentException.class, () -> new ExpiredProductPurger(dataSource, config));
+    }
+}
@@ -1,10 +1,25 @@
 package com.bobocode;
 
+import com.bobocode.dao.ProductBulkLoadMapping;
+import com.bobocode.dao.ProductChangeWatermark;
+import com.bobocode.dao.ProductChanges;
 import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductCriteria;
 import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.ProductIndexes;
+import com.bobocode.dao.ProductProjections;
+import com.bobocode.dao.ProductSortOrder;
 import com.bobocode.exception.DaoOperationException;
 import com.bobocode.model.Product;
+import com.bobocode.model.ProductPriceStats;
+import com.bobocode.model.ProductSummary;
+import com.bobocode.util.DelegatingDataSource;
 import com.bobocode.util.JdbcUtil;
+import com.bobocode.util.ProxyUtil;
+import com.bobocode.util.bulk.BulkLoader;
+import com.bobocode.util.mapping.RowMapper;
+import com.bobocode.util.pool.PoolConfig;
+import com.bobocode.util.pool.PooledDataSource;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.RandomUtils;
 import org.junit.jupiter.api.BeforeAll;
@@ -13,43 +28,55 @@ import org.junit.jupiter.api.Test;
 import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class ProductDaoTest {
     private static ProductDao productDao;
+    /**
+     * Reads changes right after they are committed. Tests run one by one, so there are no concurrent transactions.
+     */
+    private static ProductDao noLagProductDao;
 
     @BeforeAll
     static void init() throws SQLException {
         DataSource h2DataSource = JdbcUtil.createDefaultInMemoryH2DataSource();
-        createAccountTable(h2DataSource);
+        ProductTestDatabase.createProductsTable(h2DataSource);
+        ProductIndexes.createIndexes(h2DataSource);
         productDao = new ProductDaoImpl(h2DataSource);
-    }
-
-    private static void createAccountTable(DataSource dataSource) throws SQLException {
-        try (Connection connection = dataSource.getConnection()) {
-            Statement createTableStatement = connection.createStatement();
-            createTableStatement.execute("CREATE TABLE IF NOT EXISTS products (\n" +
-                    "  id            SERIAL NOT NULL,\n" +
-                    "  name     VARCHAR(255) NOT NULL,\n" +
-                    "  producer     VARCHAR(255) NOT NULL,\n" +
-                    "  price       DECIMAL(19, 4),\n" +
-                    "  expiration_date      TIMESTAMP NOT NULL,\n" +
-                    "  creation_time TIMESTAMP NOT NULL DEFAULT now(),\n" +
-                    "\n" +
-                    "  CONSTRAINT products_pk PRIMARY KEY (id)\n" +
-                    ");\n" +
-                    "\n");
-        }
+        noLagProductDao = new ProductDaoImpl(h2DataSource, 500, 1000, Duration.ZERO);
     }
 
     private Product generateTestProduct() {
@@ -66,7 +93,7 @@ public class ProductDaoTest {
     void testSave() {
         Product fanta = createTestFantaProduct();
 
-        int productsCountBeforeInsert = productDao.findAll().size();
+        long productsCountBeforeInsert = productDao.count();
         productDao.save(fanta);
         List<Product> products = productDao.findAll();
 
@@ -88,6 +115,51 @@ public class ProductDaoTest {
         }
     }
 
+    @Test
+    void testSaveAll() {
+        ProductDao smallBatchProductDao = new ProductDaoImpl(JdbcUtil.createDefaultInMemoryH2DataSource(), 2);
+        List<Product> newProducts = generateTestProductList(5);
+
+        long productsCountBeforeInsert = productDao.count();
+        smallBatchProductDao.saveAll(newProducts);
+        List<Product> products = productDao.findAll();
+
+        assertTrue(newProducts.stream().allMatch(product -> product.getId() != null));
+        assertEquals(newProducts.size(), newProducts.stream().map(Product::getId).distinct().count());
+        assertEquals(productsCountBeforeInsert + newProducts.size(), products.size());
+        for (Product product : newProducts) {
+            assertTrue(completelyEquals(product, productDao.findOne(product.getId())));
+        }
+    }
+
+    private List<Product> generateTestProductList(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(generateTestProduct());
+        }
+        return products;
+    }
+
+    @Test
+    void testSaveAllWithInvalidProduct() {
+        Product invalidTestProduct = createInvalidTestProduct();
+        List<Product> newProducts = generateTestProductList(3);
+        newProducts.add(invalidTestProduct);
+        newProducts.add(generateTestProduct());
+
+        long productsCountBeforeInsert = productDao.count();
+        try {
+            productDao.saveAll(newProducts);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals(String.format("Error saving product: %s", invalidTestProduct), e.getMessage());
+        }
+
+        assertEquals(productsCountBeforeInsert, productDao.count());
+        assertTrue(newProducts.stream().allMatch(product -> product.getId() == null));
+    }
+
     private Product createTestFantaProduct() {
         return Product.builder()
                 .name("Fanta")
@@ -104,6 +176,97 @@ public class ProductDaoTest {
     }
 
 
+    @Test
+    void testUpsertStoredProduct() {
+        Product testProduct = generateTestProduct();
+        productDao.save(testProduct);
+        long productsCountBeforeUpsert = productDao.count();
+
+        testProduct.setName("Upserted name");
+        productDao.upsert(testProduct);
+
+        assertEquals(productsCountBeforeUpsert, productDao.count());
+        assertTrue(completelyEquals(testProduct, productDao.findOne(testProduct.getId())));
+    }
+
+    @Test
+    void testUpsertProductWithNotExistingId() {
+        Product testProduct = generateTestProduct();
+        testProduct.setId(1_000_000_000L + RandomUtils.nextInt(0, 1_000_000));
+
+        productDao.upsert(testProduct);
+
+        assertTrue(completelyEquals(testProduct, productDao.findOne(testProduct.getId())));
+    }
+
+    @Test
+    void testUpsertAll() {
+        List<Product> storedProducts = generateTestProductList(3);
+        productDao.saveAll(storedProducts);
+        storedProducts.forEach(product -> product.setPrice(BigDecimal.valueOf(777)));
+        List<Product> newProducts = generateTestProductList(2);
+        List<Product> products = new ArrayList<>(storedProducts);
+        products.addAll(newProducts);
+        long productsCountBeforeUpsert = productDao.count();
+
+        productDao.upsertAll(products);
+
+        assertEquals(productsCountBeforeUpsert + newProducts.size(), productDao.count());
+        for (Product product : products) {
+            assertNotNull(product.getId());
+            assertTrue(completelyEquals(product, productDao.findOne(product.getId())));
+        }
+    }
+
+    @Test
+    void testUpsertWithoutUpsertSyntax() throws SQLException {
+        ProductDao dao = new ProductDaoImpl(new UnknownDatabaseDataSource(JdbcUtil.createDefaultInMemoryH2DataSource()));
+        Product storedProduct = generateTestProduct();
+        dao.save(storedProduct);
+        storedProduct.setName("Upserted name");
+        Product newProduct = generateTestProduct();
+        newProduct.setId(1_000_000_000L + RandomUtils.nextInt(0, 1_000_000));
+
+        dao.upsert(storedProduct);
+        dao.upsert(newProduct);
+
+        assertTrue(completelyEquals(storedProduct, dao.findOne(storedProduct.getId())));
+        assertTrue(completelyEquals(newProduct, dao.findOne(newProduct.getId())));
+    }
+
+    @Test
+    void testUpsertAllWithoutUpsertSyntax() throws SQLException {
+        ProductDao dao = new ProductDaoImpl(new UnknownDatabaseDataSource(JdbcUtil.createDefaultInMemoryH2DataSource()), 2);
+        List<Product> storedProducts = generateTestProductList(3);
+        dao.saveAll(storedProducts);
+        storedProducts.forEach(product -> product.setPrice(BigDecimal.valueOf(777)));
+        List<Product> products = new ArrayList<>(storedProducts);
+        for (Product newProduct : generateTestProductList(2)) {
+            newProduct.setId(1_000_000_000L + RandomUtils.nextInt(0, 1_000_000));
+            products.add(newProduct);
+        }
+        long productsCountBeforeUpsert = dao.count();
+
+        dao.upsertAll(products);
+
+        assertEquals(productsCountBeforeUpsert + 2, dao.count());
+        for (Product product : products) {
+            assertTrue(completelyEquals(product, dao.findOne(product.getId())));
+        }
+    }
+
+    @Test
+    void testBulkLoad() throws SQLException {
+        List<Product> newProducts = generateTestProductList(1_500);
+        long productsCountBeforeLoad = productDao.count();
+
+        long rowCount = new BulkLoader(JdbcUtil.createDefaultInMemoryH2DataSource())
+                .load(ProductBulkLoadMapping.PRODUCTS, newProducts);
+
+        assertEquals(newProducts.size(), rowCount);
+        assertEquals(productsCountBeforeLoad + newProducts.size(), productDao.count());
+    }
+
     @Test
     void testFindAll() {
         List<Product> newProducts = createTestProductList();
@@ -118,6 +281,169 @@ public class ProductDaoTest {
 
     }
 
+    @Test
+    void testStreamAll() {
+        List<Product> newProducts = generateTestProductList(10);
+        productDao.saveAll(newProducts);
+        List<Product> allProducts = productDao.findAll();
+
+        List<Product> streamedProducts;
+        try (Stream<Product> productStream = new ProductDaoImpl(JdbcUtil.createDefaultInMemoryH2DataSource(), 10, 3)
+                .streamAll()) {
+            streamedProducts = productStream.collect(toList());
+        }
+
+        assertEquals(allProducts.size(), streamedProducts.size());
+        assertTrue(streamedProducts.containsAll(newProducts));
+    }
+
+    @Test
+    void testParallelScan() {
+        productDao.saveAll(generateTestProductList(100));
+        List<Product> allProducts = productDao.findAll();
+        Set<String> scanThreads = ConcurrentHashMap.newKeySet();
+
+        Queue<Product> scannedProducts = new ConcurrentLinkedQueue<>();
+        productDao.parallelScan(4, product -> {
+            scanThreads.add(Thread.currentThread().getName());
+            scannedProducts.add(product);
+        });
+
+        assertEquals(allProducts.size(), scannedProducts.size());
+        assertEquals(new HashSet<>(allProducts), new HashSet<>(scannedProducts));
+        assertFalse(scanThreads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    void testParallelScanOnGivenExecutor() {
+        productDao.saveAll(generateTestProductList(10));
+        long productCount = productDao.count();
+        Set<String> scanThreads = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "custom-scan"));
+        try {
+            Queue<Product> scannedProducts = new ConcurrentLinkedQueue<>();
+            productDao.parallelScan(2, product -> {
+                scanThreads.add(Thread.currentThread().getName());
+                scannedProducts.add(product);
+            }, executor);
+
+            assertEquals(productCount, scannedProducts.size());
+            assertEquals(Set.of("custom-scan"), scanThreads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelScanRethrowsActionException() {
+        productDao.save(generateTestProduct());
+
+        try {
+            productDao.parallelScan(2, product -> {
+                throw new IllegalStateException("Cannot export product");
+            });
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(IllegalStateException.class, e.getClass());
+            assertEquals("Cannot export product", e.getMessage());
+        }
+    }
+
+    @Test
+    void testParallelScanStopsAllPartitionsBeforeRethrowing() throws InterruptedException {
+        productDao.saveAll(generateTestProductList(20));
+        AtomicInteger actionCount = new AtomicInteger();
+        AtomicInteger runningActionCount = new AtomicInteger();
+        AtomicInteger actionCountAfterReturn = new AtomicInteger();
+        AtomicBoolean returned = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            productDao.parallelScan(4, product -> {
+                if (returned.get()) {
+                    actionCountAfterReturn.incrementAndGet();
+                }
+                runningActionCount.incrementAndGet();
+                try {
+                    if (actionCount.incrementAndGet() == 2) {
+                        throw new IllegalStateException("Cannot export product");
+                    }
+                    // a slow action that ignores interrupts
+                    long deadline = System.nanoTime() + Duration.ofMillis(20).toNanos();
+                    while (System.nanoTime() < deadline) {
+                        LockSupport.parkNanos(deadline - System.nanoTime());
+                    }
+                } finally {
+                    runningActionCount.decrementAndGet();
+                }
+            }, executor);
+            fail("Exception was't thrown");
+        } catch (IllegalStateException e) {
+            returned.set(true);
+            assertEquals(0, runningActionCount.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, actionCountAfterReturn.get());
+    }
+
+    @Test
+    void testClosingStreamReleasesConnection() {
+        try (PooledDataSource singleConnectionDataSource = JdbcUtil.createPooledDataSource(
+                JdbcUtil.createDefaultInMemoryH2DataSource(),
+                PoolConfig.builder().maxSize(1).acquireTimeout(Duration.ofMillis(100)).build())) {
+            ProductDao singleConnectionProductDao = new ProductDaoImpl(singleConnectionDataSource);
+            productDao.save(generateTestProduct());
+
+            try (Stream<Product> productStream = singleConnectionProductDao.streamAll()) {
+                assertTrue(productStream.findFirst().isPresent());
+            }
+
+            assertFalse(singleConnectionProductDao.findAll().isEmpty());
+        }
+    }
+
+    @Test
+    void testPageThroughLargeTable() throws SQLException {
+        ProductDao pagingProductDao = createProductDaoWithLargeTable("products_paging_db", 2_500);
+
+        List<Product> pagedProducts = new ArrayList<>();
+        List<Product> page = pagingProductDao.findPage(null, 100);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 100);
+            pagedProducts.addAll(page);
+            page = pagingProductDao.findPage(page.get(page.size() - 1).getId(), 100);
+        }
+        List<Product> allProducts = pagingProductDao.findAll();
+        allProducts.sort(Comparator.comparing(Product::getId));
+
+        assertEquals(2_500, pagedProducts.size());
+        assertEquals(allProducts, pagedProducts);
+    }
+
+    @Test
+    void testPageByCreationTime() throws SQLException {
+        ProductDao pagingProductDao = createProductDaoWithLargeTable("products_paging_by_time_db", 1_000);
+
+        List<Product> pagedProducts = new ArrayList<>();
+        List<Product> page = pagingProductDao.findPage(ProductSortOrder.CREATION_TIME, null, 64);
+        while (!page.isEmpty()) {
+            pagedProducts.addAll(page);
+            page = pagingProductDao.findPage(ProductSortOrder.CREATION_TIME, page.get(page.size() - 1), 64);
+        }
+        List<Product> allProducts = pagingProductDao.findAll();
+        allProducts.sort(Comparator.comparing(Product::getCreationTime).thenComparing(Product::getId));
+
+        assertEquals(allProducts, pagedProducts);
+    }
+
+    private ProductDao createProductDaoWithLargeTable(String databaseName, int size) throws SQLException {
+        ProductDao largeTableProductDao = new ProductDaoImpl(ProductTestDatabase.create(databaseName));
+        largeTableProductDao.saveAll(generateTestProductList(size));
+        return largeTableProductDao;
+    }
+
     private List<Product> createTestProductList() {
         return List.of(
                 Product.builder()
@@ -152,6 +478,253 @@ public class ProductDaoTest {
         assertEquals(testProduct.getExpirationDate(), product.getExpirationDate());
     }
 
+    @Test
+    void testFindAllById() {
+        List<Product> newProducts = generateTestProductList(300);
+        productDao.saveAll(newProducts);
+        List<Long> ids = new ArrayList<>();
+        newProducts.forEach(product -> ids.add(product.getId()));
+        ids.add(newProducts.get(0).getId());
+        ids.add(-1L);
+
+        Map<Long, Product> productsById = productDao.findAllById(ids);
+
+        assertEquals(newProducts.size(), productsById.size());
+        assertFalse(productsById.containsKey(-1L));
+        for (Product product : newProducts) {
+            assertTrue(completelyEquals(product, productsById.get(product.getId())));
+        }
+    }
+
+    @Test
+    void testFindAllByIdWithOddNumberOfIds() {
+        List<Product> newProducts = generateTestProductList(3);
+        productDao.saveAll(newProducts);
+
+        Map<Long, Product> productsById = productDao.findAllById(
+                List.of(newProducts.get(0).getId(), newProducts.get(1).getId(), newProducts.get(2).getId()));
+
+        assertEquals(3, productsById.size());
+        assertTrue(productsById.values().containsAll(newProducts));
+    }
+
+    @Test
+    void testFindAllAsSummary() {
+        Product testProduct = generateTestProduct();
+        productDao.save(testProduct);
+
+        List<ProductSummary> summaries = productDao.findAllAs(ProductProjections.SUMMARY);
+
+        ProductSummary summary = summaries.stream()
+                .filter(productSummary -> productSummary.getId().equals(testProduct.getId()))
+                .findAny()
+                .orElseThrow();
+        assertEquals(productDao.count(), summaries.size());
+        assertEquals(testProduct.getName(), summary.getName());
+        assertEquals(testProduct.getPrice().setScale(2), summary.getPrice().setScale(2));
+    }
+
+    @Test
+    void testFindOneAsCustomProjection() {
+        Product testProduct = generateTestProduct();
+        productDao.save(testProduct);
+        RowMapper<String> producerMapper = RowMapper.of(row -> row.getString(0), "producer");
+
+        String producer = productDao.findOneAs(testProduct.getId(), producerMapper);
+
+        assertEquals(testProduct.getProducer(), producer);
+    }
+
+    @Test
+    void testFindAllAsWithUnknownColumn() {
+        RowMapper<String> invalidMapper = RowMapper.of(row -> row.getString(0), "name FROM products; --");
+
+        try {
+            productDao.findAllAs(invalidMapper);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals("Unknown product column: name FROM products; --", e.getMessage());
+        }
+    }
+
+    @Test
+    void testFindAllByCriteria() {
+        String producer = RandomStringUtils.randomAlphabetic(20);
+        LocalDate expirationDate = LocalDate.of(2030, Month.MARCH, 10);
+        List<Product> newProducts = Stream.of(5, 15, 25, 35)
+                .map(price -> Product.builder()
+                        .name("Criteria " + price)
+                        .producer(producer)
+                        .price(BigDecimal.valueOf(price))
+                        .expirationDate(expirationDate.plusDays(price))
+                        .build())
+                .collect(toList());
+        productDao.saveAll(newProducts);
+
+        List<Product> byPrice = productDao.findAll(ProductCriteria.builder()
+                .producer(producer)
+                .minPrice(BigDecimal.valueOf(15))
+                .maxPrice(BigDecimal.valueOf(25))
+                .build());
+        List<Product> byExpirationDate = productDao.findAll(ProductCriteria.builder()
+                .producer(producer)
+                .expiresFrom(expirationDate.plusDays(15))
+                .expiresBefore(expirationDate.plusDays(35))
+                .build());
+
+        assertEquals(newProducts.subList(1, 3), byPrice);
+        assertEquals(newProducts.subList(1, 3), byExpirationDate);
+        assertEquals(newProducts, productDao.findAll(ProductCriteria.builder().producer(producer).build()));
+    }
+
+    @Test
+    void testFindAllByNamePrefixMatchesWildcardsLiterally() {
+        String prefix = RandomStringUtils.randomAlphabetic(10);
+        Product underscoreProduct = generateTestProduct();
+        underscoreProduct.setName(prefix + "_100%");
+        Product otherProduct = generateTestProduct();
+        otherProduct.setName(prefix + "X100X");
+        productDao.saveAll(List.of(underscoreProduct, otherProduct));
+
+        List<Product> products = productDao.findAll(ProductCriteria.builder().namePrefix(prefix + "_100%").build());
+
+        assertEquals(List.of(underscoreProduct), products);
+        assertEquals(2, productDao.findAll(ProductCriteria.builder().namePrefix(prefix).build()).size());
+    }
+
+    @Test
+    void testFindChangedSince() throws InterruptedException {
+        Product updatedProduct = generateTestProduct();
+        Product upsertedProduct = generateTestProduct();
+        productDao.saveAll(List.of(updatedProduct, upsertedProduct));
+        ProductChangeWatermark watermark = readAllChanges(noLagProductDao, null);
+        Thread.sleep(10);
+
+        Product newProduct = generateTestProduct();
+        productDao.save(newProduct);
+        updatedProduct.setName("Updated");
+        productDao.update(updatedProduct);
+        upsertedProduct.setName("Upserted");
+        productDao.upsert(upsertedProduct);
+        ProductChanges changes = noLagProductDao.findChangedSince(watermark, 2);
+        ProductChanges nextChanges = noLagProductDao.findChangedSince(changes.getNextWatermark(), 2);
+
+        List<Product> changedProducts = new ArrayList<>(changes.getProducts());
+        changedProducts.addAll(nextChanges.getProducts());
+        assertTrue(changes.isMoreAvailable());
+        assertFalse(nextChanges.isMoreAvailable());
+        assertEquals(Set.of(newProduct, updatedProduct, upsertedProduct), new HashSet<>(changedProducts));
+        assertEquals(3, changedProducts.size());
+        assertTrue(changedProducts.stream().anyMatch(product -> product.getName().equals("Upserted")));
+        ProductChanges noChanges = noLagProductDao.findChangedSince(nextChanges.getNextWatermark(), 2);
+        assertTrue(noChanges.getProducts().isEmpty());
+        assertEquals(nextChanges.getNextWatermark(), noChanges.getNextWatermark());
+    }
+
+    @Test
+    void testFindChangedSinceDoesNotPassUncommittedChanges() throws SQLException {
+        DataSource dataSource = ProductTestDatabase.create("change_feed_db");
+        ProductDao changeFeedProductDao = new ProductDaoImpl(dataSource, 500, 1000, Duration.ofMinutes(1));
+        ProductDao noLagChangeFeedProductDao = new ProductDaoImpl(dataSource, 500, 1000, Duration.ZERO);
+        Product oldProduct = generateTestProduct();
+        changeFeedProductDao.save(oldProduct);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE products SET updated_time = ? WHERE id = ?")) {
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minusMinutes(2)));
+            statement.setLong(2, oldProduct.getId());
+            statement.executeUpdate();
+        }
+
+        ProductChanges changes;
+        ProductChanges changesWithoutLag;
+        Product newProduct = generateTestProduct();
+        try (Connection writerConnection = dataSource.getConnection();
+             Statement writerStatement = writerConnection.createStatement()) {
+            writerConnection.setAutoCommit(false);
+            writerStatement.executeUpdate("INSERT INTO products(name, producer, expiration_date) " +
+                    "VALUES ('Slow', 'Slow producer', CURRENT_DATE)");
+            // committed while the slow transaction is still open, but written after it
+            changeFeedProductDao.save(newProduct);
+            changes = changeFeedProductDao.findChangedSince(null, 10);
+            changesWithoutLag = noLagChangeFeedProductDao.findChangedSince(null, 10);
+            writerConnection.commit();
+        }
+        List<String> namesAfterCommit = noLagChangeFeedProductDao.findChangedSince(changes.getNextWatermark(), 10)
+                .getProducts().stream().map(Product::getName).collect(toList());
+        List<String> namesAfterCommitWithoutLag = noLagChangeFeedProductDao
+                .findChangedSince(changesWithoutLag.getNextWatermark(), 10)
+                .getProducts().stream().map(Product::getName).collect(toList());
+
+        assertEquals(List.of(oldProduct), changes.getProducts());
+        assertEquals(List.of("Slow", newProduct.getName()), namesAfterCommit);
+        // without the lag, the watermark passes the slow change before it is committed, and it is never read
+        assertEquals(List.of(oldProduct, newProduct), changesWithoutLag.getProducts());
+        assertTrue(namesAfterCommitWithoutLag.isEmpty());
+    }
+
+    private ProductChangeWatermark readAllChanges(ProductDao productDao, ProductChangeWatermark watermark) {
+        ProductChanges changes;
+        do {
+            changes = productDao.findChangedSince(watermark, 100);
+            watermark = changes.getNextWatermark();
+        } while (changes.isMoreAvailable());
+        return watermark;
+    }
+
+    @Test
+    void testCountByProducer() {
+        String producer = RandomStringUtils.randomAlphabetic(20);
+        List<Product> newProducts = Stream.generate(this::generateTestProduct).limit(3).collect(toList());
+        newProducts.forEach(product -> product.setProducer(producer));
+        productDao.saveAll(newProducts);
+
+        Map<String, Long> countByProducer = productDao.countByProducer();
+
+        assertEquals(3L, countByProducer.get(producer));
+        assertEquals(productDao.count(), countByProducer.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testGetPriceStatsByProducer() {
+        String producer = RandomStringUtils.randomAlphabetic(20);
+        List<Product> newProducts = Stream.of(BigDecimal.valueOf(10), BigDecimal.valueOf(25), null)
+                .map(price -> {
+                    Product product = generateTestProduct();
+                    product.setProducer(producer);
+                    product.setPrice(price);
+                    return product;
+                })
+                .collect(toList());
+        productDao.saveAll(newProducts);
+
+        ProductPriceStats stats = productDao.getPriceStatsByProducer().get(producer);
+
+        assertEquals(3, stats.getProductCount());
+        assertEquals(0, BigDecimal.valueOf(10).compareTo(stats.getMinPrice()));
+        assertEquals(0, BigDecimal.valueOf(25).compareTo(stats.getMaxPrice()));
+        assertEquals(0, BigDecimal.valueOf(35).compareTo(stats.getTotalPrice()));
+        assertEquals(0, new BigDecimal("17.5").compareTo(stats.getAveragePrice()));
+    }
+
+    @Test
+    void testGetPriceStats() {
+        productDao.save(generateTestProduct());
+        List<Product> products = productDao.findAll();
+
+        ProductPriceStats stats = productDao.getPriceStats();
+
+        BigDecimal totalPrice = products.stream()
+                .map(Product::getPrice)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(products.size(), stats.getProductCount());
+        assertEquals(0, totalPrice.compareTo(stats.getTotalPrice()));
+        assertTrue(stats.getMinPrice().compareTo(stats.getAveragePrice()) <= 0);
+        assertTrue(stats.getAveragePrice().compareTo(stats.getMaxPrice()) <= 0);
+    }
+
     @Test
     void testFindByNotExistingId() {
         long invalidId = -1L;
@@ -234,6 +807,122 @@ public class ProductDaoTest {
         }
     }
 
+    @Test
+    void testUpdateAll() {
+        List<Product> products = generateTestProductList(5);
+        productDao.saveAll(products);
+
+        products.forEach(product -> product.setPrice(BigDecimal.valueOf(999)));
+        productDao.updateAll(products);
+
+        for (Product product : products) {
+            assertTrue(completelyEquals(product, productDao.findOne(product.getId())));
+        }
+    }
+
+    @Test
+    void testUpdateClearsUpdatedTime() {
+        Product testProduct = generateTestProduct();
+        productDao.save(testProduct);
+        Product loadedProduct = productDao.findOne(testProduct.getId());
+        assertNotNull(loadedProduct.getUpdatedTime());
+
+        loadedProduct.setName("Updated name");
+        productDao.update(loadedProduct);
+        List<Product> loadedProducts = List.of(productDao.findOne(testProduct.getId()));
+        loadedProducts.get(0).setName("Updated again");
+        productDao.updateAll(loadedProducts);
+
+        assertNull(loadedProduct.getUpdatedTime());
+        assertNull(loadedProducts.get(0).getUpdatedTime());
+        assertNotNull(productDao.findOne(testProduct.getId()).getUpdatedTime());
+    }
+
+    @Test
+    void testUpdateWritesOnlyChangedColumns() throws SQLException {
+        Product testProduct = generateTestProduct();
+        productDao.save(testProduct);
+        Product loadedProduct = productDao.findOne(testProduct.getId());
+        executeSql(String.format("UPDATE products SET producer = 'Concurrent producer' WHERE id = %d", testProduct.getId()));
+
+        loadedProduct.setPrice(BigDecimal.valueOf(555));
+        productDao.update(loadedProduct);
+
+        Product updatedProduct = productDao.findOne(testProduct.getId());
+        assertEquals("Concurrent producer", updatedProduct.getProducer());
+        assertEquals(BigDecimal.valueOf(555).setScale(2), updatedProduct.getPrice().setScale(2));
+    }
+
+    @Test
+    void testUpdateWithoutChangesIsSkipped() throws SQLException {
+        Product testProduct = generateTestProduct();
+        productDao.save(testProduct);
+        Product loadedProduct = productDao.findOne(testProduct.getId());
+        executeSql(String.format("DELETE FROM products WHERE id = %d", testProduct.getId()));
+
+        loadedProduct.setPrice(loadedProduct.getPrice().setScale(2));
+        productDao.update(loadedProduct);
+        productDao.updateAll(List.of(loadedProduct));
+
+        loadedProduct.setName("Updated name");
+        try {
+            productDao.update(loadedProduct);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals(String.format("Product with id = %d does not exist", testProduct.getId()), e.getMessage());
+        }
+    }
+
+    @Test
+    void testUpdateAllWritesOnlyChangedColumns() throws SQLException {
+        List<Product> products = generateTestProductList(4);
+        productDao.saveAll(products);
+        List<Long> ids = products.stream().map(Product::getId).collect(toList());
+        List<Product> loadedProducts = new ArrayList<>(productDao.findAllById(ids).values());
+        executeSql(String.format("UPDATE products SET name = 'Concurrent name' WHERE id IN (%d, %d, %d, %d)",
+                ids.toArray()));
+
+        loadedProducts.get(0).setPrice(BigDecimal.valueOf(111));
+        loadedProducts.get(1).setProducer("Updated producer");
+        loadedProducts.get(2).setPrice(BigDecimal.valueOf(222));
+        productDao.updateAll(loadedProducts);
+
+        for (Product product : productDao.findAllById(ids).values()) {
+            assertEquals("Concurrent name", product.getName());
+        }
+        assertEquals("Updated producer", productDao.findOne(loadedProducts.get(1).getId()).getProducer());
+        assertEquals(BigDecimal.valueOf(222).setScale(2),
+                productDao.findOne(loadedProducts.get(2).getId()).getPrice().setScale(2));
+    }
+
+    private static void executeSql(String sql) throws SQLException {
+        try (Connection connection = JdbcUtil.createDefaultInMemoryH2DataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Test
+    void testUpdateAllWithInvalidId() {
+        List<Product> products = generateTestProductList(3);
+        productDao.saveAll(products);
+        String originalName = products.get(0).getName();
+        products.get(0).setName("Updated name");
+        long invalidId = -1L;
+        products.get(1).setId(invalidId);
+
+        try {
+            productDao.updateAll(products);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals(String.format("Product with id = %d does not exist", invalidId), e.getMessage());
+        }
+
+        assertEquals(originalName, productDao.findOne(products.get(0).getId()).getName());
+    }
+
     @Test
     void testRemove() {
         Product testProduct = generateTestProduct();
@@ -274,4 +963,57 @@ public class ProductDaoTest {
             assertEquals(String.format("Product with id = %d does not exist", invalidId), e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRemoveAll() {
+        List<Product> products = generateTestProductList(300);
+        productDao.saveAll(products);
+        long productsCountBeforeRemove = productDao.count();
+
+        productDao.removeAll(products);
+
+        assertEquals(productsCountBeforeRemove - products.size(), productDao.count());
+        assertTrue(productDao.findAllById(products.stream().map(Product::getId).collect(toList())).isEmpty());
+    }
+
+    @Test
+    void testRemoveAllWithInvalidId() {
+        List<Product> products = generateTestProductList(300);
+        productDao.saveAll(products);
+        long invalidId = -1L;
+        Product notExistingProduct = generateTestProduct();
+        notExistingProduct.setId(invalidId);
+        products.add(270, notExistingProduct);
+        long productsCountBeforeRemove = productDao.count();
+
+        try {
+            productDao.removeAll(products);
+            fail("Exception was't thrown");
+        } catch (Exception e) {
+            assertEquals(DaoOperationException.class, e.getClass());
+            assertEquals(String.format("Product with id = %d does not exist", invalidId), e.getMessage());
+        }
+
+        assertEquals(productsCountBeforeRemove, productDao.count());
+    }
+
+    /**
+     * Reports an unknown database product name, so {@link ProductDaoImpl} can not use upsert syntax
+     */
+    private static class UnknownDatabaseDataSource extends DelegatingDataSource {
+        private UnknownDatabaseDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = targetDataSource.getConnection();
+            DatabaseMetaData metaData = connection.getMetaData();
+            DatabaseMetaData unknownMetaData = ProxyUtil.createProxy(DatabaseMetaData.class, (proxy, method, args) ->
+                    method.getName().equals("getDatabaseProductName") ? "Unknown DB"
+                            : ProxyUtil.invoke(metaData, method, args));
+            return ProxyUtil.createProxy(Connection.class, (proxy, method, args) ->
+                    method.getName().equals("getMetaData") ? unknownMetaData : ProxyUtil.invoke(connection, method, args));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bobocode;
+
+import com.bobocode.analytics.ProductSnapshot;
+import com.bobocode.analytics.ProductSnapshotLoader;
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.model.Product;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ProductSnapshotTest {
+    private static final LocalDate EXPIRATION_DATE = LocalDate.of(2030, 1, 1);
+    private static ProductDao productDao;
+    private static ProductSnapshot snapshot;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        DataSource dataSource = ProductTestDatabase.create("snapshot_db");
+        productDao = new ProductDaoImpl(dataSource);
+        productDao.saveAll(List.of(
+                createTestProduct("Milk", "Farm", new BigDecimal("1.25"), 0),
+                createTestProduct("Milk", "Dairy", new BigDecimal("1.5"), 10),
+                createTestProduct("Cheese", "Dairy", new BigDecimal("10.0001"), 20),
+                createTestProduct("Bread", "Bakery", null, 30)));
+        snapshot = new ProductSnapshotLoader(dataSource, 2).load();
+    }
+
+    private static Product createTestProduct(String name, String producer, BigDecimal price, int expiresInDays) {
+        return Product.builder()
+                .name(name)
+                .producer(producer)
+                .price(price)
+                .expirationDate(EXPIRATION_DATE.plusDays(expiresInDays))
+                .build();
+    }
+
+    @Test
+    void testSnapshotRowsMatchProducts() {
+        List<Product> products = productDao.findAll();
+
+        assertEquals(products.size(), snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            Product product = products.get(row);
+            Product snapshotProduct = snapshot.getProduct(row);
+            assertEquals(product.getId(), snapshotProduct.getId());
+            assertEquals(product.getName(), snapshotProduct.getName());
+            assertEquals(product.getProducer(), snapshotProduct.getProducer());
+            assertEquals(product.getPrice(), snapshotProduct.getPrice());
+            assertEquals(product.getExpirationDate(), snapshotProduct.getExpirationDate());
+            assertEquals(product.getCreationTime(), snapshotProduct.getCreationTime());
+            assertEquals(product.getUpdatedTime(), snapshotProduct.getUpdatedTime());
+        }
+        assertEquals(3, snapshot.getProducerCount());
+        assertEquals(3, snapshot.getNameCount());
+    }
+
+    @Test
+    void testAggregates() {
+        assertEquals(new BigDecimal("12.7501"), snapshot.getTotalPrice());
+        assertEquals(new BigDecimal("4.2500"), snapshot.getAveragePrice());
+        assertEquals(Map.of("Farm", 1L, "Dairy", 2L, "Bakery", 1L), snapshot.countByProducer());
+        assertEquals(new BigDecimal("11.5001"), snapshot.totalPriceByProducer().get("Dairy"));
+        assertNull(snapshot.getPrice(3));
+    }
+
+    @Test
+    void testTotalPriceDoesNotOverflow() throws SQLException {
+        DataSource dataSource = ProductTestDatabase.create("snapshot_overflow_db");
+        // each unscaled price is 9 * 10^18, so the sum of two no longer fits into a long
+        BigDecimal price = new BigDecimal("900000000000000");
+        new ProductDaoImpl(dataSource).saveAll(List.of(
+                createTestProduct("Gold", "Mine", price, 0),
+                createTestProduct("Gold", "Mine", price, 0)));
+        ProductSnapshot overflowSnapshot = new ProductSnapshotLoader(dataSource, 2).load();
+        BigDecimal expectedTotal = new BigDecimal("1800000000000000.0000");
+
+        assertEquals(expectedTotal, overflowSnapshot.getTotalPrice());
+        assertEquals(expectedTotal, overflowSnapshot.getTotalPrice(overflowSnapshot.filterByProducer("Mine")));
+        assertEquals(expectedTotal, overflowSnapshot.totalPriceByProducer().get("Mine"));
+    }
+
+    @Test
+    void testFilters() {
+        BitSet rows = snapshot.filterByProducer("Dairy");
+        rows.and(snapshot.filterByPrice(BigDecimal.ONE, BigDecimal.TEN));
+
+        assertEquals(1, rows.cardinality());
+        assertEquals("Milk", snapshot.getName(rows.nextSetBit(0)));
+        assertEquals(new BigDecimal("1.5000"), snapshot.getTotalPrice(rows));
+        assertEquals(2, snapshot.filterByExpirationDate(EXPIRATION_DATE.plusDays(10), EXPIRATION_DATE.plusDays(30))
+                .cardinality());
+        assertEquals(3, snapshot.filterByPrice(BigDecimal.ZERO, new BigDecimal("100")).cardinality());
+        assertEquals(0, snapshot.filterByProducer("Unknown").cardinality());
+    }
+}
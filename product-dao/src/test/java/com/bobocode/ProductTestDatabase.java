@@ -0,0 +1,46 @@
+package com.bobocode;
+
+import com.bobocode.util.FileReader;
+import com.bobocode.util.JdbcUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * {@link ProductTestDatabase} creates in-memory H2 databases with the {@code products} table, so all tests and the
+ * benchmarks share the schema from {@link #PRODUCTS_TABLE_SCRIPT}. It is a test resource, so the schema is not shipped
+ * with the product-dao jar, and the benchmarks module depends on the product-dao test jar.
+ */
+public class ProductTestDatabase {
+    public static final String PRODUCTS_TABLE_SCRIPT = "db/products_table.sql";
+
+    private ProductTestDatabase() {
+    }
+
+    /**
+     * Creates a named in-memory database that lives until the JVM exits, and creates the {@code products} table in it
+     *
+     * @param databaseName a name that is unique for a test class, so tests don't see each other's products
+     * @return data source of the database
+     */
+    public static DataSource create(String databaseName) throws SQLException {
+        DataSource dataSource = JdbcUtil.createInMemoryH2DataSource(
+                String.format("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1", databaseName), "sa", "");
+        createProductsTable(dataSource);
+        return dataSource;
+    }
+
+    /**
+     * Creates the {@code products} table unless it already exists
+     *
+     * @param dataSource a data source of the database
+     */
+    public static void createProductsTable(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(FileReader.readWholeFileFromResources(PRODUCTS_TABLE_SCRIPT));
+        }
+    }
+}
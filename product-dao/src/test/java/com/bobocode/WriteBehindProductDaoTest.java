@@ -0,0 +1,272 @@
+package com.bobocode;
+
+import com.bobocode.dao.ProductDao;
+import com.bobocode.dao.ProductDaoImpl;
+import com.bobocode.dao.WriteBehindConfig;
+import com.bobocode.dao.WriteBehindProductDao;
+import com.bobocode.exception.DaoOperationException;
+import com.bobocode.model.Product;
+import com.bobocode.util.DelegatingDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WriteBehindProductDaoTest {
+    private static final WriteBehindConfig MANUAL_FLUSH_CONFIG = WriteBehindConfig.builder()
+            .flushInterval(Duration.ofHours(1))
+            .build();
+    private static DataSource dataSource;
+    private static ProductDao productDao;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        dataSource = ProductTestDatabase.create("write_behind_db");
+        productDao = new ProductDaoImpl(dataSource);
+    }
+
+    private Product createTestProduct(String name) {
+        return Product.builder()
+                .name(name)
+                .producer("Test producer")
+                .price(BigDecimal.TEN)
+                .expirationDate(LocalDate.now().plusYears(1))
+                .build();
+    }
+
+    @Test
+    void testSavesAreWrittenOnFlush() {
+        try (WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, MANUAL_FLUSH_CONFIG)) {
+            Product product = createTestProduct("Buffered");
+
+            CompletableFuture<Long> id = writeBehindProductDao.saveAsync(product);
+            assertFalse(id.isDone());
+            assertEquals(1, writeBehindProductDao.getBufferSize());
+
+            writeBehindProductDao.flush();
+            assertEquals(0, writeBehindProductDao.getBufferSize());
+            assertEquals("Buffered", productDao.findOne(id.join()).getName());
+            assertNull(product.getId());
+        }
+    }
+
+    @Test
+    void testUpdatesOfTheSameProductAreCoalesced() {
+        try (WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, MANUAL_FLUSH_CONFIG)) {
+            Product product = createTestProduct("Before update");
+            productDao.save(product);
+            Product priceUpdate = productDao.findOne(product.getId());
+            Product nameUpdate = productDao.findOne(product.getId());
+
+            priceUpdate.setPrice(BigDecimal.valueOf(42));
+            writeBehindProductDao.update(priceUpdate);
+            nameUpdate.setName("After update");
+            writeBehindProductDao.update(nameUpdate);
+
+            assertEquals(1, writeBehindProductDao.getBufferSize());
+            assertEquals("After update", writeBehindProductDao.findOne(product.getId()).getName());
+            writeBehindProductDao.flush();
+            Product storedProduct = productDao.findOne(product.getId());
+            assertEquals("After update", storedProduct.getName());
+            assertEquals(BigDecimal.valueOf(42).setScale(2), storedProduct.getPrice().setScale(2));
+        }
+    }
+
+    @Test
+    void testFullBufferIsFlushedByWriter() {
+        WriteBehindConfig config = WriteBehindConfig.builder()
+                .flushThreshold(5)
+                .maxBufferSize(5)
+                .flushInterval(Duration.ofHours(1))
+                .build();
+        try (WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, config)) {
+            List<CompletableFuture<Long>> ids = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                ids.add(writeBehindProductDao.saveAsync(createTestProduct("Product " + i)));
+            }
+
+            assertEquals(0, writeBehindProductDao.getBufferSize());
+            ids.forEach(id -> assertNotNull(id.getNow(null)));
+        }
+    }
+
+    @Test
+    void testBufferedSaveIsNotChangedByCaller() {
+        try (WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, MANUAL_FLUSH_CONFIG)) {
+            Product product = createTestProduct("Buffered");
+
+            CompletableFuture<Long> id = writeBehindProductDao.saveAsync(product);
+            product.setName("Changed after save");
+            writeBehindProductDao.flush();
+
+            assertEquals("Buffered", productDao.findOne(id.join()).getName());
+        }
+    }
+
+    @Test
+    void testBufferIsFlushedInBackground() throws Exception {
+        WriteBehindConfig config = WriteBehindConfig.builder().flushInterval(Duration.ofMillis(20)).build();
+        try (WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, config)) {
+            CompletableFuture<Long> id = writeBehindProductDao.saveAsync(createTestProduct("Flushed in background"));
+
+            assertNotNull(id.get(2, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testInvalidProductDoesNotPreventOthersFromBeingStored() {
+        WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, MANUAL_FLUSH_CONFIG);
+        CompletableFuture<Long> validId = writeBehindProductDao.saveAsync(createTestProduct("Valid"));
+        CompletableFuture<Long> invalidId = writeBehindProductDao.saveAsync(createTestProduct(null));
+
+        DaoOperationException e = assertThrows(DaoOperationException.class, writeBehindProductDao::flush);
+
+        assertEquals("Cannot write 1 of 2 buffered products, 1 of them will be retried", e.getMessage());
+        assertEquals("Valid", productDao.findOne(validId.join()).getName());
+        assertFalse(invalidId.isDone());
+        assertEquals(1, writeBehindProductDao.getBufferSize());
+        assertThrows(DaoOperationException.class, writeBehindProductDao::close);
+    }
+
+    @Test
+    void testWriteIsDroppedAfterMaxAttempts() {
+        WriteBehindConfig config = WriteBehindConfig.builder()
+                .flushInterval(Duration.ofHours(1))
+                .maxWriteAttempts(2)
+                .build();
+        try (WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, config)) {
+            CompletableFuture<Long> id = writeBehindProductDao.saveAsync(createTestProduct(null));
+
+            assertThrows(DaoOperationException.class, writeBehindProductDao::flush);
+            assertEquals(1, writeBehindProductDao.getBufferSize());
+            DaoOperationException e = assertThrows(DaoOperationException.class, writeBehindProductDao::flush);
+
+            assertEquals("Cannot write 1 of 1 buffered products, 0 of them will be retried", e.getMessage());
+            assertEquals(0, writeBehindProductDao.getBufferSize());
+            ExecutionException dropped = assertThrows(ExecutionException.class, id::get);
+            assertTrue(dropped.getCause() instanceof DaoOperationException);
+        }
+    }
+
+    @Test
+    void testFailedBackgroundFlushDoesNotLoseWrites() throws Exception {
+        FailingDataSource failingDataSource = new FailingDataSource(dataSource);
+        List<RuntimeException> failures = new CopyOnWriteArrayList<>();
+        WriteBehindConfig config = WriteBehindConfig.builder()
+                .flushInterval(Duration.ofMillis(20))
+                .maxWriteAttempts(Integer.MAX_VALUE)
+                .failureListener(failures::add)
+                .build();
+        try (WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(new ProductDaoImpl(failingDataSource), config)) {
+            failingDataSource.failing = true;
+
+            CompletableFuture<Long> id = writeBehindProductDao.saveAsync(createTestProduct("Saved after outage"));
+            for (int attempt = 0; attempt < 100 && failingDataSource.failedConnectionCount.get() < 2; attempt++) {
+                Thread.sleep(20);
+            }
+            assertFalse(id.isDone());
+            CompletableFuture<Long> nextId = writeBehindProductDao.saveAsync(createTestProduct("Saved after failure"));
+            failingDataSource.failing = false;
+
+            assertEquals("Saved after outage", productDao.findOne(id.get(2, TimeUnit.SECONDS)).getName());
+            assertEquals("Saved after failure", productDao.findOne(nextId.get(2, TimeUnit.SECONDS)).getName());
+            assertFalse(failures.isEmpty());
+            assertThrows(DaoOperationException.class, writeBehindProductDao::flush);
+        }
+    }
+
+    @Test
+    void testWriterThatFillsBufferDoesNotThrowOtherFailures() {
+        List<RuntimeException> failures = new CopyOnWriteArrayList<>();
+        WriteBehindConfig config = WriteBehindConfig.builder()
+                .flushThreshold(2)
+                .maxBufferSize(2)
+                .flushInterval(Duration.ofHours(1))
+                .maxWriteAttempts(1)
+                .failureListener(failures::add)
+                .build();
+        WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, config);
+        CompletableFuture<Long> invalidId = writeBehindProductDao.saveAsync(createTestProduct(null));
+
+        CompletableFuture<Long> validId = writeBehindProductDao.saveAsync(createTestProduct("Fills the buffer"));
+
+        assertEquals("Fills the buffer", productDao.findOne(validId.join()).getName());
+        assertTrue(invalidId.isCompletedExceptionally());
+        assertEquals(1, failures.size());
+        assertThrows(DaoOperationException.class, writeBehindProductDao::close);
+    }
+
+    @Test
+    void testConcurrentSavesAreStoredOnClose() throws Exception {
+        int threadCount = 8;
+        int savesPerThread = 200;
+        List<CompletableFuture<Long>> ids = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        WriteBehindProductDao writeBehindProductDao = new WriteBehindProductDao(productDao, WriteBehindConfig.builder()
+                .flushThreshold(50)
+                .maxBufferSize(100)
+                .build());
+        try {
+            List<Future<List<CompletableFuture<Long>>>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                futures.add(executor.submit(() -> {
+                    List<CompletableFuture<Long>> threadIds = new ArrayList<>();
+                    for (int i = 0; i < savesPerThread; i++) {
+                        threadIds.add(writeBehindProductDao.saveAsync(createTestProduct("Concurrent " + i)));
+                    }
+                    return threadIds;
+                }));
+            }
+            for (Future<List<CompletableFuture<Long>>> future : futures) {
+                ids.addAll(future.get());
+            }
+        } finally {
+            executor.shutdown();
+            writeBehindProductDao.close();
+        }
+
+        List<Long> storedIds = ids.stream().map(CompletableFuture::join).collect(toList());
+        assertEquals(threadCount * savesPerThread, productDao.findAllById(storedIds).size());
+    }
+
+    private static class FailingDataSource extends DelegatingDataSource {
+        private final AtomicInteger failedConnectionCount = new AtomicInteger();
+        private volatile boolean failing;
+
+        private FailingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                failedConnectionCount.incrementAndGet();
+                throw new SQLException("Database is not available");
+            }
+            return targetDataSource.getConnection();
+        }
+    }
+}
@@ -6,6 +6,8 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 /**
  * {@link WallStreetDbInitializer} is an API that has only one method. It allow to create a database tables to store
@@ -20,16 +22,18 @@ public class WallStreetDbInitializer {
     }
 
     /**
-     * Reads the SQL script form the file and executes it
+     * Reads the SQL script form the file and executes its statements one by one
      *
      * @throws SQLException
      */
     public void init() throws SQLException {
-        String createTablesSql = FileReader.readWholeFileFromResources(TABLE_INITIALIZATION_SQL_FILE);
-
-        try (Connection connection = dataSource.getConnection()) {
+        try (Stream<String> createTablesStatements = FileReader.streamSqlStatements(TABLE_INITIALIZATION_SQL_FILE);
+             Connection connection = dataSource.getConnection()) {
             Statement statement = connection.createStatement();
-            statement.execute(createTablesSql);
+            Iterator<String> sqlIterator = createTablesStatements.iterator();
+            while (sqlIterator.hasNext()) {
+                statement.execute(sqlIterator.next());
+            }
         }
     }
 